@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+/**
+ * Inputs for the benchmarks, each one dominated by one kind of token.
+ * They are built from a fixed pattern, so every run scans the same chars.
+ */
+public final class BenchmarkInputs {
+
+    private BenchmarkInputs() {}
+
+    /**
+     * @param shape One of identifiers, numbers, strings, indentation, operators,
+     *              or corpus for code with a mix of everything made by CorpusGenerator
+     * @param size  Approximate amount of chars of the input
+     * @return An input of the given shape
+     */
+    public static String of(String shape, int size) {
+        if (shape.equals("corpus")) {
+            return new CorpusGenerator(1).generate(size);
+        }
+
+        StringBuilder builder = new StringBuilder(size + 128);
+        int i = 0;
+        while (builder.length() < size) {
+            switch (shape) {
+                case "identifiers": {
+                    builder.append("val name").append(i % 97).append(" = otherName")
+                            .append(i % 13).append(" camelCase snake_case_").append(i % 7).append('\n');
+                    break;
+                }
+                case "numbers": {
+                    builder.append(i).append(' ').append(i * 31L).append(".5 0x").append(Integer.toHexString(i))
+                            .append(' ').append(i % 100).append("e+").append(i % 20).append(" 3.14159\n");
+                    break;
+                }
+                case "strings": {
+                    builder.append("\"A string of some length, number ").append(i).append("\" \"\" ")
+                            .append("\"with \\\"escapes\\\" and \\n new lines\"\n");
+                    break;
+                }
+                case "indentation": {
+                    int depth = i % 16;
+                    for (int level = 0; level < depth; level++) builder.append("    ");
+                    builder.append("id").append(depth).append('\n');
+                    break;
+                }
+                case "operators": {
+                    builder.append("a + b * (c - d) <$> e |> f ?: g == h != i && j || k -> l .. m <=> n\n");
+                    break;
+                }
+                default: {
+                    throw new IllegalArgumentException("Unknown input shape: " + shape);
+                }
+            }
+            i++;
+        }
+        return builder.toString();
+    }
+}
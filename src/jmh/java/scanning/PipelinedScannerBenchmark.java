@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import error.ErrorList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Takes every token of an input from a TokenStream, scanned in the same thread or in another one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PipelinedScannerBenchmark {
+
+    @Param({"corpus"})
+    public String shape;
+
+    @Param({"1000000"})
+    public int size;
+
+    private String input;
+
+    @Setup
+    public void createInput() {
+        input = BenchmarkInputs.of(shape, size);
+    }
+
+    private int drain(TokenStream stream, Blackhole blackhole) {
+        int count = 0;
+        Token t;
+        do {
+            t = stream.next();
+            blackhole.consume(t);
+            count++;
+        } while (t.type != TokenType.EOF);
+        return count;
+    }
+
+    @Benchmark
+    public void sequential(ScanCounters counters, Blackhole blackhole) {
+        TokenStream stream = new TokenStream(new MainScanner(input, new ErrorList()), 4);
+        counters.bytes += input.length();
+        counters.tokens += drain(stream, blackhole);
+    }
+
+    @Benchmark
+    public void pipelined(ScanCounters counters, Blackhole blackhole) {
+        try (PipelinedScanner pipeline = new PipelinedScanner(input, new ErrorList())) {
+            counters.bytes += input.length();
+            counters.tokens += drain(pipeline.tokenStream(4), blackhole);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning.scanner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import scanning.MainScanner;
+import scanning.ScanCounters;
+
+/**
+ * Scans a single token with each sub-scanner, without the dispatch of MainScanner.
+ * Each operation resets the scanner to the start of its input and scans the token again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SubScannerBenchmark {
+
+    private static final String NUMBER = "1234.5678e+10";
+    private static final String IDENTIFIER = "someIdentifierName_2";
+    private static final String STRING = "\"A string with \\\"escape\\\" characters\"";
+    private static final String OPERATOR = "<$>";
+    private static final String GROUPING_SIGN = "(  )";
+
+    private NumberScanner numberScanner;
+    private IdentifierScanner identifierScanner;
+    private StringScanner stringScanner;
+    private OperatorScanner operatorScanner;
+    private GroupingSignScanner groupingSignScanner;
+
+    @Setup
+    public void createScanners() {
+        numberScanner = new NumberScanner(new MainScanner(NUMBER));
+        identifierScanner = new IdentifierScanner(new MainScanner(IDENTIFIER));
+        stringScanner = new StringScanner(new MainScanner(STRING));
+        operatorScanner = new OperatorScanner(new MainScanner(OPERATOR));
+        groupingSignScanner = new GroupingSignScanner(new MainScanner(GROUPING_SIGN));
+    }
+
+    private static int scan(AbstractScanner scanner, ScanCounters counters) {
+        scanner.reset();
+        scanner.scanToken();
+        counters.bytes += scanner.getPosition();
+        counters.tokens++;
+        return scanner.getPosition();
+    }
+
+    @Benchmark
+    public int number(ScanCounters counters) {
+        return scan(numberScanner, counters);
+    }
+
+    @Benchmark
+    public int identifier(ScanCounters counters) {
+        return scan(identifierScanner, counters);
+    }
+
+    @Benchmark
+    public int string(ScanCounters counters) {
+        int position = scan(stringScanner, counters);
+        // The decoded value is created only when it's requested
+        return position + stringScanner.getDecodedValue().length();
+    }
+
+    @Benchmark
+    public int operator(ScanCounters counters) {
+        return scan(operatorScanner, counters);
+    }
+
+    @Benchmark
+    public int groupingSign(ScanCounters counters) {
+        return scan(groupingSignScanner, counters);
+    }
+}
@@ -13,6 +13,14 @@
  * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
  */
 
+import error.ErrorList;
+import error.MistiError;
+import error.ScannerError;
+import scanning.MainScanner;
+import scanning.Token;
+import scanning.TokenStream;
+import scanning.TokenType;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.Calendar;
@@ -28,7 +36,40 @@ public class Main {
         return "Misti " + Main.version + "\nCopyright (c) " + year + " Fernando Enrique Araoz Morales.";
     }
 
+    // Scanning stops after this amount of errors, so a binary file doesn't flood the output
+    private final static int MAX_ERRORS = 100;
+
+    /**
+     * Prints the tokens of stdin, one per line, followed by the errors in stderr.
+     * The input is read as it's scanned, so it can be larger than the available memory.
+     */
+    static void printTokens() {
+        ErrorList errorList = new ErrorList(MAX_ERRORS);
+        TokenStream tokens = MainScanner.fromReader(input, errorList).tokenStream();
+        Token t = tokens.next();
+        while (t.type != TokenType.EOF) {
+            System.out.println(t.lineNumber + ":" + t.position + " " + t.type + " [" + t.getValue() + "]");
+            t = tokens.next();
+        }
+
+        for (MistiError error : errorList.getErrors()) {
+            if (error instanceof ScannerError && ((ScannerError) error).start >= 0) {
+                System.err.println(((ScannerError) error).start + ": " + error.reason);
+            } else {
+                System.err.println(error.reason);
+            }
+        }
+        if (errorList.isFull()) {
+            System.err.println("Too many errors, scanning stopped.");
+        }
+    }
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--tokens")) {
+            printTokens();
+            return;
+        }
+
         System.out.println(printCopyright());
         new Repl(stdin).run();
     }
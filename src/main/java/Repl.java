@@ -40,7 +40,7 @@ public class Repl {
                 MainScanner sc = new MainScanner(input);
                 ArrayList<Token> tokens = sc.tokens();
                 for (Token t: tokens) {
-                    System.out.println("[" + t.value + "]");
+                    System.out.println("[" + t.getValue() + "]");
                 }
             }
             System.out.println();
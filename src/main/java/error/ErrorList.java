@@ -21,6 +21,24 @@ import java.util.List;
 public class ErrorList {
 
     private final List<MistiError> errors = new ArrayList<>();
+    // Amount of errors after which scanning stops
+    private final int maxErrors;
+
+    public ErrorList() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxErrors Amount of errors after which scanning stops. Only the errors that the list had when
+     *                  the scanner was created, and the ones the scanner reports, are counted.
+     *                  Errors added after the maximum is reached are still kept
+     */
+    public ErrorList(int maxErrors) {
+        if (maxErrors < 1) {
+            throw new IllegalArgumentException("The maximum amount of errors must be at least 1");
+        }
+        this.maxErrors = maxErrors;
+    }
 
     public void addError(MistiError error) {
         errors.add(error);
@@ -30,4 +48,15 @@ public class ErrorList {
         return errors;
     }
 
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    /**
+     * @return Whether the maximum amount of errors was reached
+     */
+    public boolean isFull() {
+        return errors.size() >= maxErrors;
+    }
+
 }
@@ -17,8 +17,23 @@ package error;
 
 public class ScannerError extends MistiError {
 
+    // Position of the first char the error refers to, or -1 if it's unknown
+    public final int start;
+    // Position after the last char the error refers to, or -1 if it's unknown
+    public final int end;
+
     public ScannerError(String reason) {
+        this(reason, -1, -1);
+    }
+
+    /**
+     * @param start Position of the first char the error refers to
+     * @param end   Position after the last char the error refers to
+     */
+    public ScannerError(String reason, int start, int end) {
         super(reason);
+        this.start = start;
+        this.end = end;
     }
 
 }
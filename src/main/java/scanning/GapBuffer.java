@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+/**
+ * The text of a document that is edited in place. The chars are kept in an array with a gap
+ * at the last edited position, so an edit only moves the chars between it and the previous edit.
+ */
+final class GapBuffer implements CharSequence {
+
+    private char[] chars;
+    // The gap is the region [gapStart, gapEnd) of chars
+    private int gapStart;
+    private int gapEnd;
+
+    GapBuffer(CharSequence text) {
+        int length = text.length();
+        chars = new char[length + Math.max(length / 8, 16)];
+        for (int i = 0; i < length; i++) {
+            chars[i] = text.charAt(i);
+        }
+        gapStart = length;
+        gapEnd = chars.length;
+    }
+
+    @Override
+    public int length() {
+        return chars.length - (gapEnd - gapStart);
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length());
+        }
+        return index < gapStart ? chars[index] : chars[index + gapEnd - gapStart];
+    }
+
+    /**
+     * Copies the chars between start and end to a new String
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end < start || end > length()) {
+            throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + ") of a text of length "
+                    + length());
+        }
+        if (end <= gapStart) return new String(chars, start, end - start);
+        if (start >= gapStart) return new String(chars, start + gapEnd - gapStart, end - start);
+
+        var builder = new StringBuilder(end - start);
+        builder.append(chars, start, gapStart - start);
+        builder.append(chars, gapEnd, end - gapStart);
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+
+    /**
+     * Replaces a region of the text.
+     *
+     * @param offset        Position where the region starts
+     * @param removedLength Amount of chars removed at offset
+     * @param insertedText  Text inserted at offset
+     * @return The amount of chars moved to put the gap at offset
+     */
+    int replace(int offset, int removedLength, CharSequence insertedText) {
+        int moved = moveGap(offset);
+        gapEnd += removedLength;
+
+        int insertedLength = insertedText.length();
+        if (gapEnd - gapStart < insertedLength) {
+            grow(insertedLength);
+        }
+        for (int i = 0; i < insertedLength; i++) {
+            chars[gapStart + i] = insertedText.charAt(i);
+        }
+        gapStart += insertedLength;
+        return moved;
+    }
+
+    private int moveGap(int offset) {
+        if (offset < gapStart) {
+            int count = gapStart - offset;
+            System.arraycopy(chars, offset, chars, gapEnd - count, count);
+            gapStart -= count;
+            gapEnd -= count;
+            return count;
+        }
+        int count = offset - gapStart;
+        System.arraycopy(chars, gapEnd, chars, gapStart, count);
+        gapStart += count;
+        gapEnd += count;
+        return count;
+    }
+
+    private void grow(int minGap) {
+        int length = length();
+        char[] newChars = new char[Math.max(chars.length * 2, length + minGap + 16)];
+        int afterGap = chars.length - gapEnd;
+        System.arraycopy(chars, 0, newChars, 0, gapStart);
+        System.arraycopy(chars, gapEnd, newChars, newChars.length - afterGap, afterGap);
+        gapEnd = newChars.length - afterGap;
+        chars = newChars;
+    }
+}
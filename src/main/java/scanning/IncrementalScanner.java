@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+import error.ErrorList;
+import error.MistiError;
+import error.ScannerError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the tokens of a document up to date as it's edited, without scanning it again from the start.
+ *
+ * After an edit, scanning restarts at the last checkpoint before the edit, and stops at the first
+ * checkpoint after it where the scanner is in the same state as before. The tokens in between are
+ * replaced, and the rest are moved by the amount of chars inserted. Errors of the scanner are updated
+ * in the same way, so the ErrorList has the errors that a full scan of the current text would report.
+ * So the amount of chars scanned depends on the size of the edit, and on the distance between checkpoints.
+ *
+ * The text, the tokens and the checkpoints are edited in place. Each of them has a gap at the last edit,
+ * and what is after the gap is moved as a whole, so an edit only copies what is between it and the
+ * previous one. Editing near the same place costs the same regardless of the size of the document.
+ */
+public class IncrementalScanner {
+
+    private final ErrorList errorList;
+    private final GapBuffer text;
+    private final TokenBuffer tokens;
+    private final ScanCheckpoints checkpoints;
+    // Amount of tokens scanned by the last call to edit()
+    private int lastScannedTokens;
+    // Amount of chars, tokens and checkpoints moved across their gaps by the last call to edit()
+    private int lastMovedEntries;
+
+    public IncrementalScanner(String text, ErrorList errorList) {
+        this.errorList = errorList;
+        this.text = new GapBuffer(text);
+
+        MainScanner scanner = new MainScanner(this.text, errorList);
+        checkpoints = new ScanCheckpoints();
+        scanner.checkpoints = checkpoints;
+        tokens = scanner.tokenBuffer();
+        lastScannedTokens = tokens.size();
+    }
+
+    public IncrementalScanner(String text) {
+        this(text, new ErrorList());
+    }
+
+    /**
+     * @return A copy of the current text
+     */
+    public String getText() {
+        return text.toString();
+    }
+
+    /**
+     * The buffer is updated in place by each edit, and its input is the current text.
+     * So the slices returned by text() are only valid until the next edit.
+     *
+     * @return The tokens of the current text, ending with an EOF token
+     */
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return The amount of tokens that the last edit scanned, including the EOF token if it was scanned
+     */
+    public int getLastScannedTokens() {
+        return lastScannedTokens;
+    }
+
+    int getLastMovedEntries() {
+        return lastMovedEntries;
+    }
+
+    /**
+     * Replaces a region of the text, and updates the tokens.
+     *
+     * @param offset        Position where the edit starts
+     * @param removedLength Amount of chars removed at offset
+     * @param insertedText  Text inserted at offset
+     * @return The tokens of the new text, the same buffer returned by getTokens()
+     * @throws IndexOutOfBoundsException if the removed region is not inside the text
+     */
+    public TokenBuffer edit(int offset, int removedLength, String insertedText) {
+        if (offset < 0 || removedLength < 0 || offset + removedLength > text.length()) {
+            throw new IndexOutOfBoundsException("Invalid edit [" + offset + ", " + (offset + removedLength)
+                    + ") of a text of length " + text.length());
+        }
+
+        int positionDelta = insertedText.length() - removedLength;
+
+        // The state at a checkpoint depends only on the text before it, which didn't change
+        int restartIndex = checkpoints.lastAtOrBefore(offset);
+        int restartPosition = checkpoints.position(restartIndex);
+        int restartLine = checkpoints.lineNumber(restartIndex);
+        int[] restartLevels = checkpoints.levels(restartIndex);
+
+        // Tokens and checkpoints after the restart point go after the gaps, where they are moved by the edit
+        int firstScanned = tokens.firstTokenAt(restartPosition);
+        lastMovedEntries = tokens.moveGap(firstScanned)
+                + checkpoints.beginEdit(restartIndex, positionDelta, offset + insertedText.length())
+                + text.replace(offset, removedLength, insertedText);
+        tokens.inputEdited(positionDelta);
+
+        // Errors of the scanned region are collected apart, so they replace the old ones of that region
+        ErrorList regionErrors = new ErrorList(errorList.getMaxErrors());
+        MainScanner scanner = new MainScanner(
+                text,
+                regionErrors,
+                tokens.getSymbolTable(),
+                ScanBackend.getDefault(),
+                restartPosition,
+                restartLine,
+                new IndentationState(restartLevels),
+                text.length()
+        );
+        scanner.checkpoints = checkpoints;
+
+        // New tokens are added at the gap, before the previous tokens
+        int sizeBefore = tokens.size();
+        while (scanner.hasNext() && checkpoints.getSyncPosition() == -1) {
+            scanner.scanInto(tokens);
+        }
+        scanner.finishRecording();
+        lastScannedTokens = tokens.size() - sizeBefore;
+
+        int syncPosition = checkpoints.getSyncPosition();
+        checkpoints.endEdit();
+        if (syncPosition == -1) {
+            tokens.removeAfterGap(Integer.MAX_VALUE);
+            tokens.add(TokenType.EOF, scanner.getPosition(), 0);
+            lastScannedTokens++;
+            replaceErrors(restartPosition, Integer.MAX_VALUE, positionDelta, regionErrors);
+        } else {
+            // Previous tokens from the checkpoint are the same, moved by the edit
+            tokens.removeAfterGap(syncPosition);
+            replaceErrors(restartPosition, syncPosition - positionDelta, positionDelta, regionErrors);
+        }
+        return tokens;
+    }
+
+    /**
+     * Replaces the errors of the scanner found in the scanned region, and moves the ones after it.
+     * Errors without a position, or that are not from the scanner, are kept.
+     *
+     * @param start         Position where scanning restarted
+     * @param end           Position in the old text where scanning stopped
+     * @param positionDelta Amount of chars inserted by the edit, negative if they were removed
+     * @param regionErrors  Errors found in the scanned region
+     */
+    private void replaceErrors(int start, int end, int positionDelta, ErrorList regionErrors) {
+        List<MistiError> errors = errorList.getErrors();
+        List<MistiError> after = new ArrayList<>();
+        int kept = 0;
+        for (MistiError error : errors) {
+            int errorStart = error instanceof ScannerError ? ((ScannerError) error).start : -1;
+            if (errorStart < start) {
+                errors.set(kept, error);
+                kept++;
+            } else if (errorStart >= end) {
+                ScannerError scannerError = (ScannerError) error;
+                after.add(new ScannerError(scannerError.reason, errorStart + positionDelta,
+                        scannerError.end + positionDelta));
+            }
+        }
+        errors.subList(kept, errors.size()).clear();
+        errors.addAll(regionErrors.getErrors());
+        errors.addAll(after);
+    }
+}
@@ -15,14 +15,44 @@
 
 package scanning;
 
-import java.util.Stack;
+import java.util.Arrays;
 
+/**
+ * Stack of indentation levels. The bottom level is always 0.
+ * Levels are stored in an int array, so they are not boxed.
+ */
 public class IndentationState {
-    private final Stack<Integer> levels;
+    private int[] levels;
+    private int size;
 
     public IndentationState() {
-        levels = new Stack<>();
-        levels.push(0);
+        levels = new int[8];
+        levels[0] = 0;
+        size = 1;
+    }
+
+    /**
+     * Creates a state with the levels returned by snapshot()
+     * @param snapshot Levels from the bottom to the top. The first one must be 0
+     */
+    public IndentationState(int[] snapshot) {
+        levels = Arrays.copyOf(snapshot, Math.max(snapshot.length, 8));
+        size = snapshot.length;
+    }
+
+    /**
+     * @return A copy of the levels, from the bottom to the top
+     */
+    public int[] snapshot() {
+        return Arrays.copyOf(levels, size);
+    }
+
+    /**
+     * @param snapshot Levels returned by snapshot()
+     * @return Whether this state has the same levels
+     */
+    public boolean matches(int[] snapshot) {
+        return Arrays.equals(levels, 0, size, snapshot, 0, snapshot.length);
     }
 
     /**
@@ -30,7 +60,14 @@ public class IndentationState {
      * @return
      */
     public int get() {
-        return levels.peek();
+        return levels[size - 1];
+    }
+
+    /**
+     * @return The number of levels above 0
+     */
+    public int depth() {
+        return size - 1;
     }
 
     /**
@@ -43,7 +80,11 @@ public class IndentationState {
         if (level <= current) {
             throw new IllegalArgumentException("Attempted to add a lower indentation level");
         }
-        levels.push(level);
+        if (size == levels.length) {
+            levels = Arrays.copyOf(levels, size * 2);
+        }
+        levels[size] = level;
+        size++;
     }
 
     /**
@@ -61,15 +102,14 @@ public class IndentationState {
 
         // As there's always a level 0, just return the size -1 and clear the stack
         if (amount == 0) {
-            int size = levels.size() - 1;
-            levels.clear();
-            levels.push(0);
-            return size;
+            int decreased = size - 1;
+            size = 1;
+            return decreased;
         }
 
         int counter = 0;
-        levels.pop();
-        while (levels.size() > 1) {
+        size--;
+        while (size > 1) {
             int nextLower = get();
 
             counter++;
@@ -79,7 +119,7 @@ public class IndentationState {
             else if (nextLower < amount) {
                 break;
             }
-            levels.pop();
+            size--;
         }
 
         return -1;
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+/**
+ * The position where each line of an input starts, to find the line and column of any position.
+ *
+ * Lines and columns start at 0, like the line numbers of the scanner. A new line belongs to the line it ends.
+ * Positions of a Utf8Input are byte offsets, so its columns are counted in bytes.
+ */
+public final class LineMap {
+
+    // Position of the first char of each line, in ascending order. The first one is always 0
+    private final int[] lineStarts;
+    private final int lineCount;
+    // Length of the input, the last valid position
+    private final int inputLength;
+
+    private LineMap(int[] lineStarts, int lineCount, int inputLength) {
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+        this.inputLength = inputLength;
+    }
+
+    /**
+     * Finds the start of every line of the input.
+     *
+     * @param input The text to map. It can't be a ReaderInput, because all of it must be available
+     * @return The lines of the input
+     */
+    public static LineMap of(CharSequence input) {
+        if (input instanceof ReaderInput) {
+            throw new IllegalArgumentException("A LineMap can't be created from an input read from a Reader");
+        }
+
+        int length = input.length();
+        int[] lineStarts = new int[Math.max(length / 32, 16)];
+        int lineCount = 1;
+
+        if (input instanceof String) {
+            // indexOf is an intrinsic, much faster than reading each char
+            String s = (String) input;
+            int newLine = s.indexOf('\n');
+            while (newLine != -1) {
+                if (lineCount == lineStarts.length) lineStarts = grow(lineStarts);
+                lineStarts[lineCount++] = newLine + 1;
+                newLine = s.indexOf('\n', newLine + 1);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                if (input.charAt(i) != '\n') continue;
+                if (lineCount == lineStarts.length) lineStarts = grow(lineStarts);
+                lineStarts[lineCount++] = i + 1;
+            }
+        }
+
+        return new LineMap(lineStarts, lineCount, length);
+    }
+
+    private static int[] grow(int[] lineStarts) {
+        int[] result = new int[lineStarts.length * 2];
+        System.arraycopy(lineStarts, 0, result, 0, lineStarts.length);
+        return result;
+    }
+
+    /**
+     * @return The amount of lines. An input that ends with a new line has an empty last line
+     */
+    public int lineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @param line A line number, starting at 0
+     * @return The position of the first char of the line
+     */
+    public int lineStart(int line) {
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("Line " + line + " out of bounds for " + lineCount + " lines");
+        }
+        return lineStarts[line];
+    }
+
+    /**
+     * @param position A position of the input, or its length
+     * @return The line number of the position, starting at 0
+     */
+    public int lineOf(int position) {
+        checkPosition(position);
+
+        // Last line that starts at or before position
+        int low = 0;
+        int high = lineCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (lineStarts[middle] <= position) low = middle;
+            else high = middle - 1;
+        }
+        return low;
+    }
+
+    /**
+     * @param position A position of the input, or its length
+     * @return The amount of chars between the start of the line and the position
+     */
+    public int columnOf(int position) {
+        return position - lineStarts[lineOf(position)];
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position > inputLength) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of bounds for length " + inputLength);
+        }
+    }
+}
@@ -20,14 +20,22 @@ import error.ErrorList;
 import error.ScannerError;
 import scanning.scanner.*;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 public class MainScanner {
 
-    private final String input;
-    private final int inputSize;
+    // Amount of chars of a run of unrecognized chars that are included in its error
+    private static final int MAX_UNRECOGNIZED_SHOWN = 20;
+
+    private final CharSequence input;
+    // Amount of chars that can be scanned. It only changes when the input is a ReaderInput
+    private int inputSize;
+    // Set when the input is read from a Reader as it's scanned
+    private final ReaderInput readerInput;
     // Tracks the line number
     private int lineNumber = 0;
     // Tracks the position of the lexer
@@ -35,27 +43,135 @@ public class MainScanner {
     // Tracks whether the scanner is at the start of the line
     private boolean isLineStart = true;
     // Tracks the indentation level of the line
-    private final IndentationState indentationLevel = new IndentationState();
+    private final IndentationState indentationLevel;
     private final ErrorList errorList;
+    // Errors that count for the maximum of errorList: the ones it had when this scanner was created,
+    // plus the ones reported by this scanner. Errors added by others, like the parser, don't stop the scan
+    private int errorCount;
+    // Where the names of identifiers are interned
+    private final SymbolTable symbolTable;
+    // Finds the end of runs of spaces, identifier chars and string contents
+    private final ScanBackend backend;
+
+    // Position where the last scanned token starts
+    private int tokenStart = 0;
+    // Line number of the last scanned token
+    private int tokenLine = 0;
+    // DEDENT tokens that still have to be emitted
+    private int pendingDedents = 0;
+    // Where the chars between tokens are recorded, or null if they are skipped
+    private Trivia trivia;
+    // Counts the tokens of this scan, or null if instrumentation is disabled
+    private ScanInstrumentation.Recorder recorder;
+    // If set, the state at line starts is saved here, so scanning can be restarted after an edit
+    ScanCheckpoints checkpoints;
+
+    // Scanners are created once, and reset before each token
+    private final NumberScanner numberScanner;
+    private final IdentifierScanner identifierScanner;
+    private final StringScanner stringScanner;
+    private final OperatorScanner operatorScanner;
+    private final GroupingSignScanner groupingSignScanner;
+
+    /**
+     * @param input     The text to scan. It can be a String, a Utf8Input to scan UTF-8 bytes without decoding them,
+     *                  or a ReaderInput to scan text that isn't kept in memory
+     * @param errorList Where errors are reported
+     */
+    public MainScanner(CharSequence input, ErrorList errorList) {
+        this(input, errorList, new SymbolTable());
+    }
+
+    /**
+     * @param symbolTable Where the names of identifiers are interned. It can be shared by the scanners of many files
+     */
+    public MainScanner(CharSequence input, ErrorList errorList, SymbolTable symbolTable) {
+        this(input, errorList, symbolTable, ScanBackend.getDefault());
+    }
+
+    /**
+     * @param backend Used to skip runs of chars, usually ScanBackend.getDefault()
+     */
+    public MainScanner(CharSequence input, ErrorList errorList, SymbolTable symbolTable, ScanBackend backend) {
+        this(input, errorList, symbolTable, backend, 0, 0, new IndentationState(),
+                input == null ? 0 : input.length());
+    }
 
-    public MainScanner(String input, ErrorList errorList) {
+    /**
+     * Creates a scanner over a region of the input that starts at a line start, with a known state.
+     * Positions are still absolute.
+     *
+     * @param position    Absolute position of the line start
+     * @param lineNumber  Line number of the line start
+     * @param indentation Indentation levels at the line start
+     * @param end         Absolute position where the scanner stops, as if the input ended there
+     */
+    MainScanner(CharSequence input, ErrorList errorList, SymbolTable symbolTable, ScanBackend backend, int position,
+                int lineNumber, IndentationState indentation, int end) {
         this.input = input;
         if (input == null) {
             throw new RuntimeException("NumberScanner: Input is null");
         }
 
-        this.inputSize = input.length();
+        this.position = position;
+        this.lineNumber = lineNumber;
+        this.indentationLevel = indentation;
+        this.inputSize = end;
+        this.readerInput = input instanceof ReaderInput ? (ReaderInput) input : null;
         this.errorList = errorList;
+        this.errorCount = errorList.getErrors().size();
+        this.symbolTable = symbolTable;
+        this.backend = backend;
+        this.recorder = ScanInstrumentation.recorder(position, errorList.getErrors().size());
+
+        numberScanner = new NumberScanner(this);
+        identifierScanner = new IdentifierScanner(this);
+        stringScanner = new StringScanner(this);
+        operatorScanner = new OperatorScanner(this);
+        groupingSignScanner = new GroupingSignScanner(this);
     }
 
-    public MainScanner(String input) {
+    public MainScanner(CharSequence input) {
         this(input, new ErrorList());
     }
 
-    public String getInput() {
+    /**
+     * Creates a scanner over a file mapped to memory. The file is scanned as UTF-8 bytes,
+     * so positions are byte offsets, and only the values that are requested are decoded.
+     *
+     * @param path      The file to scan
+     * @param errorList Where errors are reported
+     * @return A scanner over the contents of the file
+     * @throws IOException if the file can't be read, or is larger than 2 GB
+     */
+    public static MainScanner fromFile(Path path, ErrorList errorList) throws IOException {
+        return new MainScanner(Utf8Input.fromFile(path), errorList);
+    }
+
+    /**
+     * Creates a scanner that reads its input as it's scanned, using a fixed amount of memory.
+     * The text of each token is copied, and tokenBuffer() can't be used, because the input is discarded.
+     *
+     * @param reader    Where the input is read from
+     * @param errorList Where errors are reported
+     * @return A scanner over the contents of reader
+     */
+    public static MainScanner fromReader(Reader reader, ErrorList errorList) {
+        return new MainScanner(new ReaderInput(reader), errorList);
+    }
+
+    public CharSequence getInput() {
         return input;
     }
 
+    public ScanBackend getBackend() {
+        return backend;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
     public int getLineNumber() {
         return lineNumber;
     }
@@ -64,177 +180,442 @@ public class MainScanner {
         return position;
     }
 
+    /**
+     * @return The amount of chars that can be scanned. For a ReaderInput, only the chars read so far
+     */
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    /**
+     * @return The amount of indentation levels above 0 at the current position
+     */
+    int indentationDepth() {
+        return indentationLevel.depth();
+    }
+
     public List<MistiError> getErrorList() {
         return errorList.getErrors();
     }
 
     public void addError(MistiError error) {
         errorList.addError(error);
+        errorCount++;
     }
 
-    private boolean hasNext() {
-        return position < inputSize;
+    /**
+     * @return Whether there is input remaining, and this scanner didn't reach the maximum amount of errors
+     */
+    boolean hasNext() {
+        return (position < inputSize || hasCharAt(position)) && errorCount < errorList.getMaxErrors();
+    }
+
+    /**
+     * If the input is read from a Reader, reads it until position can be read.
+     * The chars before the current position are no longer needed, and may be discarded.
+     *
+     * @param position An absolute position of the input
+     * @return Whether position is in the input
+     */
+    public boolean hasCharAt(int position) {
+        if (position < inputSize) return true;
+        if (readerInput == null) return false;
+
+        // While a token is scanned, this.position stays at its first char
+        boolean available = readerInput.fill(position, this.position);
+        inputSize = readerInput.length();
+        return available;
     }
 
+    /**
+     * Returns the chars between start and end. They are a view over the input, unless the input
+     * is read from a Reader, in which case they are copied, because the input is discarded as it's read.
+     *
+     * @param start Absolute position of the first char
+     * @param end   Absolute position after the last char
+     * @return The chars between start and end
+     */
+    public CharSequence slice(int start, int end) {
+        if (readerInput != null) return readerInput.subSequence(start, end);
+        return new SourceSlice(input, start, end);
+    }
+
+    /**
+     * Scans the whole input at once. Prefer tokenStream(), which scans tokens as they are needed.
+     *
+     * @return All the tokens of the input, ending with an EOF token
+     */
     public ArrayList<Token> tokens() {
         ArrayList<Token> tokens = new ArrayList<>();
+        TokenStream stream = tokenStream();
+
+        Token t;
+        do {
+            t = stream.next();
+            tokens.add(t);
+        } while (t.type != TokenType.EOF);
+
+        return tokens;
+    }
+
+    /**
+     * @return A stream that scans the tokens of this input on demand
+     */
+    public TokenStream tokenStream() {
+        return new TokenStream(this);
+    }
+
+    /**
+     * Scans the whole input into a TokenBuffer, which uses less memory than a list of Token.
+     * No Token objects are created.
+     *
+     * @return A buffer with all the tokens of the input, ending with an EOF token
+     * @throws IllegalStateException if the input is read from a Reader, because it's not kept
+     */
+    public TokenBuffer tokenBuffer() {
+        return tokenBuffer(ScanMode.COMPILE);
+    }
+
+    /**
+     * @param mode Whether the whitespace and comments between tokens are kept in the buffer
+     */
+    public TokenBuffer tokenBuffer(ScanMode mode) {
+        if (readerInput != null) {
+            throw new IllegalStateException("A TokenBuffer can't be created from an input read from a Reader");
+        }
+        TokenBuffer buffer = new TokenBuffer(input, Math.max(inputSize / 8, 16), symbolTable);
+        if (mode == ScanMode.FULL_FIDELITY) {
+            trivia = new Trivia(input);
+            buffer.setTrivia(trivia);
+        }
 
-        // While there's still input
         while (hasNext()) {
-            Token[] nextTokens = nextToken();
-            // If an unknown character is found
-            if (nextTokens == null) continue;
-            Collections.addAll(tokens, nextTokens);
+            scanInto(buffer);
         }
+        buffer.add(TokenType.EOF, position, 0);
+        if (recorder != null) recorder.count(TokenType.EOF);
+        finishRecording();
 
-        // Add EOF
-        tokens.add(new Token(TokenType.EOF, "", lineNumber, position));
+        trivia = null;
+        return buffer;
+    }
 
-        return tokens;
+    /**
+     * Scans the next token and adds it to buffer.
+     * Nothing is added if an unknown character is found, the input ends, or the checkpoints stop the scan.
+     */
+    void scanInto(TokenBuffer buffer) {
+        TokenType type = scanNext();
+        if (type == null) return;
+        if (recorder != null) recorder.count(type);
+
+        if (type == TokenType.Identifier) {
+            buffer.addIdentifier(tokenStart, position - tokenStart, identifierScanner.getSymbol());
+            return;
+        }
+
+        if (type == TokenType.Operator) {
+            buffer.addOperator(tokenStart, position - tokenStart, operatorScanner.getKind());
+            return;
+        }
+
+        if (type == TokenType.Integer || type == TokenType.Floating) {
+            buffer.addNumber(type, tokenStart, position - tokenStart, numberScanner.getValueBits(),
+                    numberScanner.isOverflow());
+            return;
+        }
+
+        String decodedValue = type == TokenType.String ? stringScanner.getDecodedValue() : null;
+        if (decodedValue != null) {
+            buffer.addDecodedString(tokenStart, position - tokenStart, decodedValue);
+        } else {
+            buffer.add(type, tokenStart, position - tokenStart);
+        }
+    }
+
+    /**
+     * @return An EOF token at the current position
+     */
+    Token eofToken() {
+        if (recorder != null) recorder.count(TokenType.EOF);
+        finishRecording();
+        return new Token(TokenType.EOF, "", lineNumber, position);
+    }
+
+    /**
+     * Reports the scan to ScanInstrumentation, once the scanner stops.
+     * Scanners that stop without creating an EOF token, like the ones of a chunk, must call it themselves
+     */
+    void finishRecording() {
+        if (recorder == null) return;
+        recorder.finish(position, errorList.getErrors().size());
+        recorder = null;
     }
 
     /**
      * Consumes and returns the next token.
      *
-     * @return The next token
+     * @return The next token, or null if an unknown character was found or the input ended
      */
-    protected Token[] nextToken() {
-        // Check if there's input, because this method is recursive.
-        if (!hasNext()) {
-            return null;
+    protected Token nextToken() {
+        TokenType type = scanNext();
+        if (type == null) return null;
+        if (recorder != null) recorder.count(type);
+
+        if (type == TokenType.Integer || type == TokenType.Floating) {
+            return new Token(type, tokenText(type), tokenLine, tokenStart, numberScanner.getValueBits(),
+                    numberScanner.isOverflow());
         }
-        char nextChar = peek();
-
-
-        // Handle whitespace
-        if (!isLineStart && nextChar == ' ') {
-            while (peek() == ' ') position++;
-            return nextToken();
+        if (type == TokenType.Operator) {
+            return new Token(type, tokenText(type), tokenLine, tokenStart, operatorScanner.getKind());
         }
-        // Handle indentation
-        // If it is a new line, and the current indentation level is greater than 0,
-        //  then there should probably be a dedent
-        else if (isLineStart && (nextChar == ' ' || indentationLevel.get() > 0)) {
-            // TODO: Extract to its own file
-            int newIndentationLevel = 0;
-            while (peek() == ' ') {
-                newIndentationLevel++;
-                position++;
-            }
+        int symbol = type == TokenType.Identifier ? identifierScanner.getSymbol() : -1;
+        return new Token(type, tokenText(type), tokenLine, tokenStart, symbol);
+    }
 
-            // If the next char is \0, then we reached EOF. There is nothing to indent/dedent
-            if (peek() == '\0') {
-                return nextToken();
+    /**
+     * @param type Type of the last token scanned
+     * @return The text of the last token scanned
+     */
+    private CharSequence tokenText(TokenType type) {
+        switch (type) {
+            case Indent:
+            case Dedent: {
+                return "";
             }
+            case String: {
+                return stringScanner.getText(type);
+            }
+            case Operator: {
+                return operatorScanner.getText(type);
+            }
+            case Unit:
+            case LeftParen:
+            case RightParen:
+            case LeftBracket:
+            case RightBracket:
+            case LeftBrace:
+            case RightBrace: {
+                return GroupingSignScanner.textOf(type);
+            }
+            default: {
+                return slice(tokenStart, position);
+            }
+        }
+    }
 
-            // If:
-            // - this is not a new line where indentation drops to 0
-            // - the next char is a new line
-            // return, as there is nothing to indent/dedent
-            if (newIndentationLevel != 0 && peek() == '\n') {
-                return nextToken();
+    /**
+     * Consumes the next token, without creating an object for it.
+     * The token starts at tokenStart, ends at the current position, and is in the line tokenLine.
+     *
+     * @return The type of the next token, or null if an unknown character was found or the input ended
+     */
+    private TokenType scanNext() {
+        // Emit the DEDENT tokens left by a previous call
+        if (pendingDedents > 0) {
+            pendingDedents--;
+            tokenStart = position;
+            tokenLine = lineNumber;
+            return TokenType.Dedent;
+        }
+
+        while (hasNext()) {
+            char nextChar = peek();
+
+            // Handle new lines
+            if (nextChar == '\n') {
+                int newLinesStart = position;
+                while (peek() == '\n') {
+                    position++;
+                    lineNumber++;
+                }
+                if (trivia != null) trivia.add(TriviaKind.NewLine, newLinesStart, position);
+                isLineStart = true;
+                if (checkpoints != null && checkpoints.lineStart(position, lineNumber, indentationLevel)) {
+                    return null;
+                }
+                continue;
             }
+            // Handle indentation
+            if (isLineStart) {
+                int lineStart = position;
+                skipSpaces();
+                int newIndentationLevel = position - lineStart;
+                if (trivia != null) trivia.add(TriviaKind.Whitespace, lineStart, position);
+                if (isCommentStart()) skipComment();
+
+                // If the line has only whitespace or a comment, or the input ended, there is nothing to indent/dedent
+                if (!hasNext() || peek() == '\n') {
+                    continue;
+                }
 
-            // Check current indentation level. If the new level is higher, emit an INDENT token
-            if (newIndentationLevel > indentationLevel.get()) {
-                indentationLevel.increaseTo(newIndentationLevel);
                 isLineStart = false;
+                int currentLevel = indentationLevel.get();
 
-                Token[] tokenArr = new Token[1];
-                tokenArr[0] = new Token(TokenType.Indent, "", lineNumber, position);
-                return tokenArr;
-            }
-            // If it is lower, emit a DEDENT token
-            else if (newIndentationLevel < indentationLevel.get()) {
-                int levelsDecreased = indentationLevel.decreaseTo(newIndentationLevel);
-                if (levelsDecreased == -1) {
-                    // TODO: specify what happens next
-                    addError(new ScannerError("Wrong indentation detected."));
-                    // This should be other value
-                    levelsDecreased = 0;
+                // If the new level is higher, emit an INDENT token
+                if (newIndentationLevel > currentLevel) {
+                    indentationLevel.increaseTo(newIndentationLevel);
+
+                    tokenStart = position;
+                    tokenLine = lineNumber;
+                    return TokenType.Indent;
+                }
+                // If it is lower, emit a DEDENT token for each level decreased
+                else if (newIndentationLevel < currentLevel) {
+                    int levelsDecreased = indentationLevel.decreaseTo(newIndentationLevel);
+                    if (levelsDecreased == -1) {
+                        // TODO: specify what happens next
+                        addError(new ScannerError("Wrong indentation detected.", lineStart, position));
+                        continue;
+                    }
+
+                    // Emit one DEDENT now, and the rest in the following calls
+                    pendingDedents = levelsDecreased - 1;
+                    tokenStart = position;
+                    tokenLine = lineNumber;
+                    return TokenType.Dedent;
                 }
+                // If it is the same, do nothing
+                continue;
+            }
+            // Handle whitespace
+            if (nextChar == ' ') {
+                int spacesStart = position;
+                skipSpaces();
+                if (trivia != null) trivia.add(TriviaKind.Whitespace, spacesStart, position);
+                continue;
+            }
+            // Handle comments
+            if (isCommentStart()) {
+                skipComment();
+                continue;
+            }
+
+            tokenStart = position;
+            tokenLine = lineNumber;
+            return scanToken(nextChar);
+        }
+
+        return null;
+    }
 
-                Token[] tokenArr = new Token[levelsDecreased];
-                for (int i = 0; i < levelsDecreased; i++) {
-                    tokenArr[i] = new Token(TokenType.Dedent, "", lineNumber, position);
+    /**
+     * Scans a token that starts with nextChar, at the current position.
+     *
+     * @param nextChar The first char of the token
+     * @return The type of the token, or null if no scanner accepts nextChar
+     */
+    private TokenType scanToken(char nextChar) {
+        // The scanners are reused, and each one is called through its own field,
+        // so these calls don't need a virtual dispatch.
+        switch (Utils.charClass(nextChar)) {
+            // Check for number - integer of float
+            case Utils.DIGIT: {
+                numberScanner.reset();
+                TokenType type = numberScanner.scanToken();
+                this.position = numberScanner.getPosition();
+                return type;
+            }
+            // Check for identifier/keyword
+            case Utils.IDENTIFIER_START: {
+                identifierScanner.reset();
+                TokenType type = identifierScanner.scanToken();
+                this.position = identifierScanner.getPosition();
+                return type;
+            }
+            // Check for string
+            case Utils.QUOTE: {
+                stringScanner.reset();
+                TokenType type = stringScanner.scanToken();
+                this.position = stringScanner.getPosition();
+                // The new line that ended the string was consumed with it
+                if (stringScanner.isEndedByNewLine()) {
+                    lineNumber++;
+                    isLineStart = true;
                 }
+                return type;
+            }
+            // Check for operators
+            case Utils.OPERATOR: {
+                operatorScanner.reset();
+                TokenType type = operatorScanner.scanToken();
+                this.position = operatorScanner.getPosition();
+                return type;
+            }
+            case Utils.GROUPING_SIGN: {
+                groupingSignScanner.reset();
+                TokenType type = groupingSignScanner.scanToken();
+                this.position = groupingSignScanner.getPosition();
+                return type;
+            }
+            // No adequate scanner found, or implemented.
+            default: {
+                skipUnrecognized();
+            }
+        }
 
-                isLineStart = false;
-                return tokenArr;
-            }
-            // If it is the same, do nothing
-            else {
-                return nextToken();
-            }
-        }
-        else if (nextChar == '\n') {
-            while (peek() == '\n') {
-                position++;
-                lineNumber++;
-            }
-            isLineStart = true;
-            return nextToken();
-        }
-
-        // At this point, it is safe to assume it is not the start of a line
-        isLineStart = false;
-
-        // Check for number - integer of float
-        if (Utils.isDigit(nextChar)) {
-            AbstractScanner sc = new NumberScanner(this);
-            Token t = sc.scan();
-            this.position = sc.getPosition();
-
-            Token[] tokenArr = new Token[1];
-            tokenArr[0] = t;
-            return tokenArr;
-        }
-        // Check for identifier/keyword
-        else if (Utils.isLowercase(nextChar) || nextChar == '_') {
-            AbstractScanner sc = new IdentifierScanner(this);
-            Token t = sc.scan();
-            this.position = sc.getPosition();
-
-            Token[] tokenArr = new Token[1];
-            tokenArr[0] = t;
-            return tokenArr;
-        }
-        // Check for string
-        else if (nextChar == '"') {
-            StringScanner sc = new StringScanner(this);
-            Token t = sc.scan();
-            this.position = sc.getPosition();
-
-            Token[] tokenArr = new Token[1];
-            tokenArr[0] = t;
-            return tokenArr;
-        }
-        // Check for operators
-        else if (Utils.isOperatorChar(nextChar)) {
-            OperatorScanner op = new OperatorScanner(this);
-            Token t = op.scan();
-            this.position = op.getPosition();
-
-            Token[] tokenArr = new Token[1];
-            tokenArr[0] = t;
-            return tokenArr;
-        } else if (Utils.isGroupingSign(nextChar)) {
-            GroupingSignScanner sc = new GroupingSignScanner(this);
-            Token t = sc.scan();
-            this.position = sc.getPosition();
-
-            Token[] tokenArr = new Token[1];
-            tokenArr[0] = t;
-            return tokenArr;
-        }
-        // No adequate scanner found, or implemented.
-        else {
-            errorList.addError(new ScannerError("Unrecognized character: " + nextChar));
-            System.err.println("unrecognized character: " + nextChar);
+        return null;
+    }
+
+    /**
+     * Moves the position to the first char that is not a space, or to the end of the input
+     */
+    private void skipSpaces() {
+        while (true) {
+            position = backend.skipSpaces(input, position, inputSize);
+            // Stop at a char that is not a space, or if the input ended
+            if (position < inputSize || !hasCharAt(position)) return;
+        }
+    }
+
+    /**
+     * Consumes a run of chars that no scanner accepts, and reports all of them as a single error.
+     * The run ends at the first char that starts a token, a space, a new line, or the end of the input.
+     */
+    private void skipUnrecognized() {
+        int start = position;
+        boolean utf8 = input instanceof Utf8Input;
+        // Only the first chars are shown in the error, so they are taken before the rest is consumed
+        StringBuilder shown = new StringBuilder();
+        int shownEnd = start;
+        while (hasCharAt(position) && Utils.charClass(input.charAt(position)) == Utils.OTHER) {
+            char c = input.charAt(position);
+            // The bytes that continue a multibyte char are kept with it, so it's decoded whole
+            if (position == shownEnd
+                    && (shown.length() < MAX_UNRECOGNIZED_SHOWN || (utf8 && c >= 0x80 && c < 0xC0))) {
+                shown.append(c);
+                shownEnd++;
+            }
             position++;
         }
 
-        return null;
+        String text = utf8 ? Utf8Input.decode(shown) : shown.toString();
+        boolean truncated = shownEnd < position;
+        String reason = !truncated && text.codePointCount(0, text.length()) == 1
+                ? "Unrecognized character: " + text
+                : "Unrecognized characters: " + text + (truncated ? "..." : "");
+        addError(new ScannerError(reason, start, position));
+        if (trivia != null) trivia.add(TriviaKind.Unknown, start, position);
+    }
+
+    /**
+     * @return Whether a comment starts at the current position
+     */
+    private boolean isCommentStart() {
+        return hasNext() && peek() == '/' && hasCharAt(position + 1) && input.charAt(position + 1) == '/';
+    }
+
+    /**
+     * Moves the position to the new line that ends the comment, or to the end of the input
+     */
+    private void skipComment() {
+        int commentStart = position;
+        while (true) {
+            while (position < inputSize && input.charAt(position) != '\n') position++;
+            // Stop at the new line, or if the input ended
+            if (position < inputSize || !hasCharAt(position)) break;
+        }
+        if (trivia != null) trivia.add(TriviaKind.Comment, commentStart, position);
     }
 
     /**
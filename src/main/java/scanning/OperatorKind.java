@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+/**
+ * The operators that Misti knows, found by the scanner so the parser doesn't compare their text.
+ *
+ * Operators are taken greedily, so an operator is the whole run of operator chars.
+ * A run that is not one of these spellings is a Custom operator, whose text is kept in the input.
+ */
+public enum OperatorKind {
+    // Any other run of operator chars. It's the first, so its ordinal is the default of the lookup table
+    Custom(null),
+
+    Plus("+"),
+    Minus("-"),
+    Star("*"),
+    Slash("/"),
+    Percent("%"),
+    Caret("^"),
+    Equal("="),
+    Bang("!"),
+    Backslash("\\"),
+    Pipe("|"),
+    At("@"),
+    Hash("#"),
+    Dollar("$"),
+    Tilde("~"),
+    Ampersand("&"),
+    Question("?"),
+    Less("<"),
+    Greater(">"),
+    Dot("."),
+    Colon(":"),
+
+    EqualEqual("=="),
+    NotEqual("!="),
+    LessEqual("<="),
+    GreaterEqual(">="),
+    AndAnd("&&"),
+    OrOr("||"),
+    PlusEqual("+="),
+    MinusEqual("-="),
+    StarEqual("*="),
+    SlashEqual("/="),
+    PercentEqual("%="),
+    PlusPlus("++"),
+    Arrow("->"),
+    FatArrow("=>"),
+    ShiftLeft("<<"),
+    ShiftRight(">>"),
+    PipeLeft("<|"),
+    PipeRight("|>"),
+    ComposeLeft("<+"),
+    ComposeRight("+>"),
+    SafeDot("?."),
+    Coalesce("??"),
+    Elvis("?:"),
+    DotDot(".."),
+    ColonColon("::"),
+
+    Map("<$>"),
+    DoubleArrow("<->"),
+    Ellipsis("...");
+
+    // Operators with more chars than this are always Custom
+    private static final int MAX_LENGTH = 3;
+    // Bits of the key used by each char
+    private static final int CHAR_BITS = 5;
+
+    private static final OperatorKind[] operatorKinds = values();
+    // Code of each operator char, from 1 to 20. Other chars are 0
+    private static final byte[] charCodes = new byte[128];
+    // Ordinal of the operator of each key, or 0 (Custom) if there is none
+    private static final byte[] kindsByKey = new byte[1 << (CHAR_BITS * MAX_LENGTH)];
+
+    static {
+        String operatorChars = "+-=*!\\/|@#$~%&?<>^.:";
+        for (int i = 0; i < operatorChars.length(); i++) {
+            charCodes[operatorChars.charAt(i)] = (byte) (i + 1);
+        }
+        for (OperatorKind kind : operatorKinds) {
+            if (kind.spelling != null) {
+                kindsByKey[keyOf(kind.spelling)] = (byte) kind.ordinal();
+            }
+        }
+    }
+
+    private final String spelling;
+
+    OperatorKind(String spelling) {
+        this.spelling = spelling;
+    }
+
+    /**
+     * @return The text of the operator, or null if it's Custom
+     */
+    public String getSpelling() {
+        return spelling;
+    }
+
+    /**
+     * Adds a char to the key of an operator. The key of an operator is built one char at a time
+     * while it's scanned, starting at 0, and its kind is found with ofKey() without reading its text again.
+     *
+     * @param key The key of the chars before c
+     * @param c   An operator char
+     * @return The key of the chars before c followed by c, or -1 if they are too long to be a known operator
+     */
+    public static int extendKey(int key, char c) {
+        if (key < 0 || key >= 1 << (CHAR_BITS * (MAX_LENGTH - 1))) return -1;
+        return (key << CHAR_BITS) | charCodes[c];
+    }
+
+    /**
+     * @param key A key built with extendKey()
+     * @return The operator with that key, or Custom
+     */
+    public static OperatorKind ofKey(int key) {
+        if (key < 0) return Custom;
+        return operatorKinds[kindsByKey[key]];
+    }
+
+    /**
+     * @param text A run of operator chars
+     * @return The operator spelled as text, or Custom
+     */
+    public static OperatorKind of(CharSequence text) {
+        return ofKey(keyOf(text));
+    }
+
+    private static int keyOf(CharSequence text) {
+        int key = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Utils.isOperatorChar(c)) return -1;
+            key = extendKey(key, c);
+        }
+        return key;
+    }
+}
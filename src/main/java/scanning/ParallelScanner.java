@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+import error.ErrorList;
+import error.MistiError;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Scans a large input in parallel, splitting it at lines with no indentation.
+ *
+ * At the start of a line with no indentation, the only state of the scanner is its line number:
+ * the indentation levels are always [0] after it, and no token crosses the line start.
+ * Tokens don't store their line, so each chunk is scanned by its own MainScanner and the results
+ * are joined, adding the DEDENT tokens that a single scanner would emit at the start of the chunk.
+ * Each chunk interns its identifiers in its own SymbolTable, and their ids are mapped to the final table.
+ * The tokens, positions, line numbers and errors are the same as the ones of MainScanner.tokenBuffer().
+ * If the ErrorList fills up, the chunk where that happens and the rest are scanned by a single scanner,
+ * so the scan stops at the same place.
+ */
+public class ParallelScanner {
+
+    // Chunks smaller than this are not worth scanning in another thread
+    public static final int DEFAULT_MIN_CHUNK_SIZE = 1 << 16;
+
+    private final ForkJoinPool pool;
+    private final int minChunkSize;
+
+    public ParallelScanner() {
+        this(ForkJoinPool.commonPool(), DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * @param pool         Where the chunks are scanned
+     * @param minChunkSize Minimum amount of chars of each chunk
+     */
+    public ParallelScanner(ForkJoinPool pool, int minChunkSize) {
+        this.pool = pool;
+        this.minChunkSize = Math.max(minChunkSize, 1);
+    }
+
+    /**
+     * Scans the whole input into a TokenBuffer, using the threads of the pool.
+     *
+     * @param input     The text to scan. It can't be a ReaderInput, because it must be kept in memory
+     * @param errorList Where errors are reported, in the same order as a single scanner would report them
+     * @return A buffer with all the tokens of the input, ending with an EOF token
+     */
+    public TokenBuffer tokenBuffer(CharSequence input, ErrorList errorList) {
+        return tokenBuffer(input, errorList, new SymbolTable());
+    }
+
+    /**
+     * @param symbolTable Where the names of identifiers are interned, in the same order as a single scanner would
+     */
+    public TokenBuffer tokenBuffer(CharSequence input, ErrorList errorList, SymbolTable symbolTable) {
+        if (input instanceof ReaderInput) {
+            throw new IllegalArgumentException("A ReaderInput can't be scanned in parallel");
+        }
+
+        int maxChunks = Math.max(pool.getParallelism() * 4, 1);
+        int[] splits = splitPoints(input, Math.min(input.length() / minChunkSize, maxChunks));
+        int chunkCount = splits.length - 1;
+
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            int start = splits[i];
+            int end = splits[i + 1];
+            tasks.add(pool.submit(() -> Chunk.scan(input, start, end)));
+        }
+
+        int totalSize = 1;
+        Chunk[] chunks = new Chunk[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i] = tasks.get(i).join();
+            totalSize += chunks[i].tokens.size() + chunks[i].finalDepth;
+        }
+
+        TokenBuffer result = new TokenBuffer(input, totalSize, symbolTable);
+        for (int i = 0; i < chunkCount; i++) {
+            Chunk chunk = chunks[i];
+
+            // A single scanner stops somewhere in this chunk, so the rest is scanned like it would
+            if (errorList.getErrors().size() + chunk.errors.getErrors().size() >= errorList.getMaxErrors()) {
+                MainScanner scanner = new MainScanner(input, errorList, symbolTable, ScanBackend.getDefault(),
+                        splits[i], 0, new IndentationState(), input.length());
+                while (scanner.hasNext()) {
+                    scanner.scanInto(result);
+                }
+                scanner.finishRecording();
+                result.add(TokenType.EOF, scanner.getPosition(), 0);
+                return result;
+            }
+
+            // Ids of a chunk are in order of appearance, so interning them in order keeps that order
+            SymbolTable chunkSymbols = chunk.tokens.getSymbolTable();
+            int[] symbolMap = new int[chunkSymbols.size()];
+            for (int id = 0; id < symbolMap.length; id++) {
+                symbolMap[id] = symbolTable.intern(chunkSymbols.name(id));
+            }
+
+            result.addAll(chunk.tokens, 0, chunk.tokens.size(), 0, symbolMap);
+            for (MistiError error : chunk.errors.getErrors()) {
+                errorList.addError(error);
+            }
+
+            // A single scanner would close the open levels at the start of the next chunk
+            if (i < chunkCount - 1) {
+                for (int j = 0; j < chunk.finalDepth; j++) {
+                    result.add(TokenType.Dedent, splits[i + 1], 0);
+                }
+            }
+        }
+        result.add(TokenType.EOF, input.length(), 0);
+
+        return result;
+    }
+
+    /**
+     * Finds positions where the input can be split, close to equally spaced positions.
+     * Each one is the start of a line with no indentation, that doesn't start with a comment.
+     *
+     * @param chunks Desired amount of chunks. There may be less, if there are not enough split points
+     * @return The positions where each chunk starts, followed by the length of the input
+     */
+    static int[] splitPoints(CharSequence input, int chunks) {
+        int length = input.length();
+        List<Integer> splits = new ArrayList<>();
+        splits.add(0);
+
+        for (int i = 1; i < chunks; i++) {
+            int target = (int) ((long) length * i / chunks);
+            int split = nextSplitPoint(input, Math.max(target, splits.get(splits.size() - 1) + 1));
+            if (split >= length) break;
+            if (split > splits.get(splits.size() - 1)) splits.add(split);
+        }
+        splits.add(length);
+
+        int[] result = new int[splits.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = splits.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return The first split point at or after position, or the length of the input if there is none
+     */
+    private static int nextSplitPoint(CharSequence input, int position) {
+        int length = input.length();
+        for (int p = Math.max(position, 1); p < length; p++) {
+            if (input.charAt(p - 1) != '\n') continue;
+
+            // Lines with only whitespace or a comment don't change the indentation, so they are not split points
+            char c = input.charAt(p);
+            if (c == ' ' || c == '\n') continue;
+            if (c == '/' && p + 1 < length && input.charAt(p + 1) == '/') continue;
+            return p;
+        }
+        return length;
+    }
+
+    /**
+     * The result of scanning a chunk
+     */
+    private static class Chunk {
+        TokenBuffer tokens;
+        ErrorList errors;
+        // Indentation levels open at the end of the chunk
+        int finalDepth;
+
+        static Chunk scan(CharSequence input, int start, int end) {
+            Chunk chunk = new Chunk();
+            chunk.errors = new ErrorList();
+            SymbolTable symbols = new SymbolTable();
+            chunk.tokens = new TokenBuffer(input, Math.max((end - start) / 8, 16), symbols);
+
+            MainScanner scanner = new MainScanner(input, chunk.errors, symbols, ScanBackend.getDefault(), start, 0,
+                    new IndentationState(), end);
+            while (scanner.hasNext()) {
+                scanner.scanInto(chunk.tokens);
+            }
+            scanner.finishRecording();
+
+            chunk.finalDepth = scanner.indentationDepth();
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import error.ErrorList;
+import error.MistiError;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Scans an input in its own thread while the tokens are consumed in another one, like the one of the parser.
+ *
+ * The scanner thread groups tokens in batches and publishes them in a SpscQueue, so the threads
+ * touch shared memory once per batch instead of once per token. The scanner reports its errors
+ * to a list of its own, and each batch carries the errors reported before each of its tokens.
+ * They are added to the ErrorList when the consumer takes that token, which is when a TokenStream
+ * over a MainScanner would report them, so the tokens and the order of the errors are always the same
+ * as the ones of a single thread, whatever the timing of the threads.
+ *
+ * Scanning stops when the errors the ErrorList had when this was created, plus the ones reported by
+ * the scanner, reach its maximum. Errors reported by the consumer don't stop it, like they don't stop
+ * a MainScanner, so the scanner thread doesn't depend on how far the consumer is.
+ */
+public class PipelinedScanner implements AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 512;
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    // A thread that waits spins this many times before it yields, and then it parks
+    private static final int SPIN_LIMIT = 128;
+    private static final int YIELD_LIMIT = 256;
+    private static final long PARK_NANOS = 50_000;
+
+    private final CharSequence input;
+    private final SymbolTable symbolTable;
+    // Where the scanner reports errors. Only used by the scanner thread
+    private final ErrorList scannerErrors;
+    // Whether the ErrorList was already full, so a single scanner would stop before the first token
+    private final boolean startsFull;
+    // Where the errors are copied in order. Only used by the consumer
+    private final ErrorList errorList;
+    private final int batchSize;
+    private final SpscQueue<Batch> queue;
+
+    // Amount of errors of the scanner already moved to a batch. Only used by the scanner thread
+    private int movedErrors = 0;
+
+    private Thread thread;
+    // Set by close(), so the scanner thread stops if nobody takes its batches
+    private volatile boolean closed = false;
+
+    // Batch being read by the consumer, the index of its next token, and its errors already reported
+    private Batch current;
+    private int index;
+    private int reportedErrors;
+
+    /**
+     * @param input     The text to scan
+     * @param errorList Where errors are reported, in the same order as a single scanner would report them
+     */
+    public PipelinedScanner(CharSequence input, ErrorList errorList) {
+        this(input, errorList, new SymbolTable(), DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param symbolTable   Where the names of identifiers are interned. It's written by the scanner thread,
+     *                      so it must not be used until the EOF token is taken
+     * @param batchSize     Amount of tokens published at once
+     * @param queueCapacity Amount of batches that can be waiting for the consumer
+     */
+    public PipelinedScanner(CharSequence input, ErrorList errorList, SymbolTable symbolTable, int batchSize,
+                            int queueCapacity) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The size of a batch must be at least 1, got " + batchSize);
+        }
+        int remainingErrors = errorList.getMaxErrors() - errorList.getErrors().size();
+        this.scannerErrors = new ErrorList(Math.max(remainingErrors, 1));
+        this.startsFull = remainingErrors <= 0;
+        this.input = input;
+        this.symbolTable = symbolTable;
+        this.errorList = errorList;
+        this.batchSize = batchSize;
+        this.queue = new SpscQueue<>(queueCapacity);
+    }
+
+    /**
+     * @return The symbol table of the scanner. It's complete only once the EOF token is taken
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * Starts the scanner thread. Can be called only once.
+     *
+     * @param lookahead Amount of tokens that can be peeked, counting the next one
+     * @return A stream with the tokens of the input, read by the calling thread
+     */
+    public TokenStream tokenStream(int lookahead) {
+        if (thread != null) {
+            throw new IllegalStateException("A PipelinedScanner can only be started once");
+        }
+        TokenStream stream = new TokenStream(this, lookahead);
+        thread = new Thread(this::produce, "misti-scanner");
+        thread.setDaemon(true);
+        thread.start();
+        return stream;
+    }
+
+    /**
+     * Stops the scanner thread if it's still running, without waiting for it.
+     * The tokens already taken are still valid.
+     * A consumer that may stop before the EOF token must call it, or the thread waits forever for its batches
+     * to be taken.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * @return Whether the scanner thread was started and didn't end yet
+     */
+    boolean isScanning() {
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Takes the next token, and reports the errors found before it. Called by the consumer.
+     *
+     * @return The next token. The last one is an EOF token
+     */
+    Token take() {
+        while (current == null || index == current.size) {
+            if (current != null && current.failure != null) {
+                reportErrors(current.errors.size());
+                if (current.failure instanceof Error) throw (Error) current.failure;
+                throw (RuntimeException) current.failure;
+            }
+            current = await();
+            index = 0;
+            reportedErrors = 0;
+        }
+
+        reportErrors(current.errorEnds[index]);
+        Token token = current.tokens[index];
+        index++;
+        return token;
+    }
+
+    private void reportErrors(int end) {
+        while (reportedErrors < end) {
+            errorList.addError(current.errors.get(reportedErrors));
+            reportedErrors++;
+        }
+    }
+
+    private Batch await() {
+        Batch batch;
+        int attempts = 0;
+        while ((batch = queue.poll()) == null) {
+            idle(attempts++);
+        }
+        return batch;
+    }
+
+    /**
+     * Scans the whole input. Runs in the scanner thread.
+     */
+    private void produce() {
+        // Created in this thread, so its recorder measures the allocations of the thread that scans
+        MainScanner scanner = new MainScanner(input, scannerErrors, symbolTable);
+        try {
+            produce(scanner);
+        } finally {
+            scanner.finishRecording();
+        }
+    }
+
+    private void produce(MainScanner scanner) {
+        Batch batch = new Batch(batchSize);
+        try {
+            while (!startsFull && scanner.hasNext()) {
+                Token token = scanner.nextToken();
+                // If an unknown character is found
+                if (token == null) continue;
+
+                moveErrors(batch);
+                batch.add(token);
+                if (batch.size == batchSize) {
+                    if (!publish(batch)) return;
+                    batch = new Batch(batchSize);
+                }
+            }
+            Token eof = scanner.eofToken();
+            moveErrors(batch);
+            batch.add(eof);
+        } catch (RuntimeException | Error e) {
+            // The consumer gets the exception after the tokens scanned before it
+            moveErrors(batch);
+            batch.failure = e;
+        }
+        publish(batch);
+    }
+
+    private void moveErrors(Batch batch) {
+        List<MistiError> errors = scannerErrors.getErrors();
+        while (movedErrors < errors.size()) {
+            batch.errors.add(errors.get(movedErrors));
+            movedErrors++;
+        }
+    }
+
+    /**
+     * @return Whether the batch was published, or false if the consumer closed this scanner
+     */
+    private boolean publish(Batch batch) {
+        int attempts = 0;
+        while (!queue.offer(batch)) {
+            if (closed) return false;
+            idle(attempts++);
+        }
+        return !closed;
+    }
+
+    private static void idle(int attempts) {
+        if (attempts < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else if (attempts < YIELD_LIMIT) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    /**
+     * Tokens published at once, with the errors reported while they were scanned
+     */
+    private static final class Batch {
+        final Token[] tokens;
+        // Amount of errors of this batch that are reported before each token is taken
+        final int[] errorEnds;
+        int size = 0;
+        final List<MistiError> errors = new ArrayList<>(0);
+        // Thrown to the consumer once it takes every token
+        Throwable failure;
+
+        Batch(int size) {
+            this.tokens = new Token[size];
+            this.errorEnds = new int[size];
+        }
+
+        void add(Token token) {
+            tokens[size] = token;
+            errorEnds[size] = errors.size();
+            size++;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Input read from a Reader as it's scanned, through a window of chars that is refilled.
+ *
+ * Positions are absolute, but only the chars of the window can be read. When the window is refilled,
+ * the chars before the token that is being scanned are discarded, so the memory used depends on the
+ * size of the window and of the longest token, not on the size of the input.
+ * If a token doesn't fit in the window, the window grows.
+ *
+ * Because chars are discarded, the text of a token must be copied before the next token is scanned.
+ */
+public final class ReaderInput implements CharSequence {
+
+    public static final int DEFAULT_WINDOW_SIZE = 8192;
+
+    private final Reader reader;
+    private char[] window;
+    // Absolute position of window[0]
+    private int windowStart = 0;
+    // Absolute position after the last char read
+    private int windowEnd = 0;
+    // Whether the reader has no chars left
+    private boolean reachedEnd = false;
+
+    public ReaderInput(Reader reader) {
+        this(reader, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param reader     Where chars are read from. It's not buffered, the window is the buffer
+     * @param windowSize Initial amount of chars kept in memory
+     */
+    public ReaderInput(Reader reader, int windowSize) {
+        this.reader = reader;
+        this.window = new char[Math.max(windowSize, 16)];
+    }
+
+    /**
+     * Reads chars until position is in the window, or the reader ends.
+     *
+     * @param position Absolute position that will be read
+     * @param keepFrom Absolute position of the first char that must not be discarded
+     * @return Whether position is in the input
+     * @throws UncheckedIOException if the reader fails
+     */
+    public boolean fill(int position, int keepFrom) {
+        while (position >= windowEnd && !reachedEnd) {
+            if (windowEnd - windowStart == window.length) {
+                slide(keepFrom);
+            }
+
+            try {
+                int offset = windowEnd - windowStart;
+                int read = reader.read(window, offset, window.length - offset);
+                if (read == -1) reachedEnd = true;
+                else windowEnd += read;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return position < windowEnd;
+    }
+
+    /**
+     * Makes room in the full window, discarding the chars before keepFrom.
+     * If there is nothing to discard, the window grows.
+     */
+    private void slide(int keepFrom) {
+        int discarded = Math.min(keepFrom, windowEnd) - windowStart;
+        if (discarded <= 0) {
+            char[] newWindow = new char[window.length * 2];
+            System.arraycopy(window, 0, newWindow, 0, windowEnd - windowStart);
+            window = newWindow;
+            return;
+        }
+
+        System.arraycopy(window, discarded, window, 0, windowEnd - windowStart - discarded);
+        windowStart += discarded;
+    }
+
+    /**
+     * @return The absolute position of the first char that can be read
+     */
+    public int getWindowStart() {
+        return windowStart;
+    }
+
+    /**
+     * @return The amount of chars kept in memory
+     */
+    public int getWindowSize() {
+        return window.length;
+    }
+
+    /**
+     * @return The amount of chars read so far. It's the length of the input only after the reader ended
+     */
+    @Override
+    public int length() {
+        return windowEnd;
+    }
+
+    /**
+     * @param index An absolute position inside the window
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < windowStart || index >= windowEnd) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside the window [" + windowStart + ", "
+                    + windowEnd + ")");
+        }
+        return window[index - windowStart];
+    }
+
+    /**
+     * Copies chars of the window. Unlike other inputs, the result is not a view,
+     * because the window changes as the input is read.
+     *
+     * @return A String with the chars between the absolute positions start and end
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < windowStart || end < start || end > windowEnd) {
+            throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + ") of a window ["
+                    + windowStart + ", " + windowEnd + ")");
+        }
+        return new String(window, start - windowStart, end - start);
+    }
+
+    /**
+     * @return The chars that are in the window. The rest of the input is not available
+     */
+    @Override
+    public String toString() {
+        return new String(window, 0, windowEnd - windowStart);
+    }
+}
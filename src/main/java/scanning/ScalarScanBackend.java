@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+/**
+ * Reads one char at a time. Strings are read directly, so the JIT can compile these loops to plain array reads.
+ */
+final class ScalarScanBackend extends ScanBackend {
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public int skipSpaces(CharSequence input, int from, int to) {
+        int p = from;
+        if (input instanceof String) {
+            String text = (String) input;
+            while (p < to && text.charAt(p) == ' ') p++;
+        } else {
+            while (p < to && input.charAt(p) == ' ') p++;
+        }
+        return p;
+    }
+
+    @Override
+    public int skipIdentifierChars(CharSequence input, int from, int to) {
+        int p = from;
+        if (input instanceof String) {
+            String text = (String) input;
+            while (p < to && Utils.isIdentifierChar(text.charAt(p))) p++;
+        } else {
+            while (p < to && Utils.isIdentifierChar(input.charAt(p))) p++;
+        }
+        return p;
+    }
+
+    @Override
+    public int findStringSpecialChar(CharSequence input, int from, int to) {
+        int p = from;
+        if (input instanceof String) {
+            String text = (String) input;
+            for (; p < to; p++) {
+                char c = text.charAt(p);
+                if (c == '"' || c == '\n' || c == '\\') return p;
+            }
+        } else {
+            for (; p < to; p++) {
+                char c = input.charAt(p);
+                if (c == '"' || c == '\n' || c == '\\') return p;
+            }
+        }
+        return p;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+/**
+ * Finds the end of runs of chars that the scanners skip in bulk: spaces, identifier chars and string contents.
+ *
+ * The scalar backend reads one char at a time. If the JVM is started with
+ * `--add-modules jdk.incubator.vector`, a backend that uses the Vector API is available,
+ * which classifies many chars at once when the input is a Utf8Input over a byte array.
+ * Both backends return the same positions for every input.
+ */
+public abstract class ScanBackend {
+
+    private static final ScanBackend scalar = new ScalarScanBackend();
+    private static final ScanBackend vector = loadVector();
+    // The vector backend is used when it's available, unless -Dmisti.vector=false is set
+    private static final ScanBackend defaultBackend =
+            vector != null && !"false".equals(System.getProperty("misti.vector")) ? vector : scalar;
+
+    /**
+     * The vector backend is loaded by name, so this class can be loaded when the module is not available
+     */
+    private static ScanBackend loadVector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+        try {
+            return (ScanBackend) Class.forName("scanning.VectorScanBackend").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    public static ScanBackend scalar() {
+        return scalar;
+    }
+
+    /**
+     * @return The backend that uses the Vector API, or null if the module jdk.incubator.vector is not available
+     */
+    public static ScanBackend vector() {
+        return vector;
+    }
+
+    /**
+     * @return The backend used by default by MainScanner
+     */
+    public static ScanBackend getDefault() {
+        return defaultBackend;
+    }
+
+    public abstract String getName();
+
+    /**
+     * @param input Where the chars are
+     * @param from  Absolute position where the run starts
+     * @param to    Absolute position after the last char that can be read
+     * @return The position of the first char that is not a space, or to if there is none
+     */
+    public abstract int skipSpaces(CharSequence input, int from, int to);
+
+    /**
+     * @return The position of the first char that can't be part of an identifier, or to if there is none
+     */
+    public abstract int skipIdentifierChars(CharSequence input, int from, int to);
+
+    /**
+     * @return The position of the first quote, new line or backslash, or to if there is none
+     */
+    public abstract int findStringSpecialChar(CharSequence input, int from, int to);
+}
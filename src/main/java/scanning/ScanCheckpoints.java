@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+/**
+ * States of the MainScanner at some line starts, from which scanning can be restarted.
+ *
+ * A checkpoint is saved after the new lines at the start of a line are consumed, and before its indentation
+ * is handled. At that point the state of the scanner is only its position, line number and indentation levels.
+ * Tokens before the checkpoint are before its position, and tokens after it are at or after its position.
+ *
+ * An edit is scanned in place: the checkpoints after the restart point are moved after a gap, where they are
+ * shifted by the edit as a whole. They are used to detect when the new tokens become the same as the previous
+ * ones, and the ones before that point are replaced by the checkpoints of the new scan.
+ */
+final class ScanCheckpoints {
+
+    // Minimum amount of lines between checkpoints
+    static final int INTERVAL = 32;
+
+    private int[] positions = new int[16];
+    private int[] lines = new int[16];
+    // Indentation levels at each checkpoint. Consecutive checkpoints with the same levels share the array
+    private int[][] levels = new int[16][];
+    private int size = 0;
+    // Checkpoints are stored in [0, gapStart) and [gapEnd, capacity) of the arrays
+    private int gapStart = 0;
+    private int gapEnd = 16;
+    // Amounts added to the stored position and line of the checkpoints after the gap
+    private int afterGapPositionDelta = 0;
+    private int afterGapLineDelta = 0;
+
+    // Set while an edit is scanned
+    private boolean editing = false;
+    // Position after the inserted text, before which the scan can't synchronize
+    private int minSyncPosition;
+    // Position where the scan synchronized with a checkpoint after the gap, or -1
+    private int syncPosition = -1;
+
+    ScanCheckpoints() {
+        add(0, 0, new int[]{0});
+    }
+
+    int size() {
+        return size;
+    }
+
+    int position(int index) {
+        return index < gapStart ? positions[index] : positions[slot(index)] + afterGapPositionDelta;
+    }
+
+    int lineNumber(int index) {
+        return index < gapStart ? lines[index] : lines[slot(index)] + afterGapLineDelta;
+    }
+
+    int[] levels(int index) {
+        return levels[slot(index)];
+    }
+
+    /**
+     * @return The index of the last checkpoint at or before position
+     */
+    int lastAtOrBefore(int position) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (position(middle) <= position) low = middle;
+            else high = middle - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Prepares the scan of an edit, which restarts at the checkpoint restartIndex.
+     * The checkpoints after it are moved after the gap.
+     *
+     * @param restartIndex    Index of the checkpoint where scanning restarts
+     * @param positionDelta   Amount of chars inserted minus the amount of chars removed
+     * @param minSyncPosition Position after the inserted text
+     * @return The amount of checkpoints moved
+     */
+    int beginEdit(int restartIndex, int positionDelta, int minSyncPosition) {
+        int moved = moveGap(restartIndex + 1);
+        afterGapPositionDelta += positionDelta;
+        editing = true;
+        this.minSyncPosition = minSyncPosition;
+        syncPosition = -1;
+        return moved;
+    }
+
+    /**
+     * Ends the scan of an edit. If it didn't synchronize, the checkpoints after the gap are removed
+     */
+    void endEdit() {
+        if (syncPosition == -1) {
+            size -= positions.length - gapEnd;
+            gapEnd = positions.length;
+        }
+        editing = false;
+    }
+
+    /**
+     * @return The position where the scan of the edit synchronized, or -1 if it didn't
+     */
+    int getSyncPosition() {
+        return syncPosition;
+    }
+
+    /**
+     * Called by the MainScanner at the start of each line.
+     *
+     * @return Whether the scanner reached a state of the previous scan, so it can stop
+     */
+    boolean lineStart(int position, int lineNumber, IndentationState indentation) {
+        if (editing && syncPosition == -1 && position >= minSyncPosition) {
+            // The checkpoints of the previous scan before this position were replaced
+            while (gapEnd < positions.length && positions[gapEnd] + afterGapPositionDelta < position) {
+                gapEnd++;
+                size--;
+            }
+            if (gapEnd < positions.length && positions[gapEnd] + afterGapPositionDelta == position
+                    && indentation.matches(levels[gapEnd])) {
+                syncPosition = position;
+                afterGapLineDelta = lineNumber - lines[gapEnd];
+                return true;
+            }
+        }
+
+        if (lineNumber - lines[gapStart - 1] >= INTERVAL) {
+            int[] last = levels[gapStart - 1];
+            add(position, lineNumber, indentation.matches(last) ? last : indentation.snapshot());
+        }
+        return false;
+    }
+
+    private int moveGap(int index) {
+        if (index < gapStart) {
+            int count = gapStart - index;
+            moveSlots(index, gapEnd - count, count);
+            for (int i = gapEnd - count; i < gapEnd; i++) {
+                positions[i] -= afterGapPositionDelta;
+                lines[i] -= afterGapLineDelta;
+            }
+            gapStart -= count;
+            gapEnd -= count;
+            return count;
+        }
+        int count = index - gapStart;
+        moveSlots(gapEnd, gapStart, count);
+        for (int i = gapStart; i < gapStart + count; i++) {
+            positions[i] += afterGapPositionDelta;
+            lines[i] += afterGapLineDelta;
+        }
+        gapStart += count;
+        gapEnd += count;
+        return count;
+    }
+
+    private void moveSlots(int from, int to, int count) {
+        System.arraycopy(positions, from, positions, to, count);
+        System.arraycopy(lines, from, lines, to, count);
+        System.arraycopy(levels, from, levels, to, count);
+    }
+
+    private int slot(int index) {
+        return index < gapStart ? index : index + gapEnd - gapStart;
+    }
+
+    private void add(int position, int lineNumber, int[] levels) {
+        if (gapStart == gapEnd) {
+            int capacity = positions.length;
+            int afterGap = capacity - gapEnd;
+            int newGapEnd = capacity * 2 - afterGap;
+            int[] newPositions = new int[capacity * 2];
+            int[] newLines = new int[capacity * 2];
+            int[][] newLevels = new int[capacity * 2][];
+            System.arraycopy(positions, 0, newPositions, 0, gapStart);
+            System.arraycopy(lines, 0, newLines, 0, gapStart);
+            System.arraycopy(this.levels, 0, newLevels, 0, gapStart);
+            System.arraycopy(positions, gapEnd, newPositions, newGapEnd, afterGap);
+            System.arraycopy(lines, gapEnd, newLines, newGapEnd, afterGap);
+            System.arraycopy(this.levels, gapEnd, newLevels, newGapEnd, afterGap);
+            positions = newPositions;
+            lines = newLines;
+            this.levels = newLevels;
+            gapEnd = newGapEnd;
+        }
+        positions[gapStart] = position;
+        lines[gapStart] = lineNumber;
+        this.levels[gapStart] = levels;
+        gapStart++;
+        size++;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event for the scan of a whole input, committed when its EOF token is produced.
+ * Its duration is the time between the creation of the scanner and the EOF token.
+ */
+@Name("misti.Scan")
+@Label("Scan")
+@Category({"Misti", "Scanner"})
+@Description("Scan of a whole input by a MainScanner")
+class ScanEvent extends jdk.jfr.Event {
+
+    @Label("Chars")
+    @Description("Amount of chars scanned. For a Utf8Input each char is a byte")
+    @DataAmount(DataAmount.BYTES)
+    long chars;
+
+    @Label("Tokens")
+    long tokens;
+
+    @Label("Errors")
+    long errors;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the thread during the scan, or -1 if they are not measured")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+}
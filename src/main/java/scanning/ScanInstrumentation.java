@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in instrumentation of MainScanner. It's disabled by default, and can be enabled with enable(),
+ * or by starting the JVM with -Dmisti.instrumentation=true.
+ *
+ * While it's disabled, scanners don't record anything, and the only cost is a null check per token.
+ * While it's enabled, each scanner counts its tokens by type, and when it stops it commits a
+ * ScanEvent to the Flight Recorder and adds its counts to the metrics. The chunks of a ParallelScanner,
+ * and the regions scanned again by an IncrementalScanner, are recorded as scans of their own.
+ * Only scanners created while it's enabled are recorded.
+ */
+public final class ScanInstrumentation {
+
+    private static volatile boolean enabled = Boolean.getBoolean("misti.instrumentation");
+
+    private static final Totals totals = new Totals();
+
+    private ScanInstrumentation() {}
+
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The totals of the scans recorded. The same object is returned by every call, and its values change
+     */
+    public static ScanMetrics metrics() {
+        return totals;
+    }
+
+    /**
+     * Sets every metric to 0
+     */
+    public static void reset() {
+        totals.reset();
+    }
+
+    /**
+     * Holds the bean that measures allocations. It's loaded by the first recorder, so while instrumentation
+     * is disabled the JVM doesn't start measuring the allocations of every thread
+     */
+    private static final class Allocations {
+        // Null if the JVM can't measure the bytes allocated by a thread
+        static final com.sun.management.ThreadMXBean threads = allocationBean();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+                if (allocationBean.isThreadAllocatedMemorySupported()) {
+                    allocationBean.setThreadAllocatedMemoryEnabled(true);
+                    return allocationBean;
+                }
+            }
+        } catch (UnsupportedOperationException | LinkageError e) {
+            // Allocations are not measured
+        }
+        return null;
+    }
+
+    /**
+     * @return The bytes allocated by the current thread until now, or -1 if they are not measured
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = Allocations.threads;
+        return threads != null ? threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    /**
+     * @return A recorder for a scanner that starts at position, or null if instrumentation is disabled
+     */
+    static Recorder recorder(int position, int errors) {
+        return enabled ? new Recorder(position, errors) : null;
+    }
+
+    /**
+     * What a single scanner records, until it stops
+     */
+    static final class Recorder {
+        private final ScanEvent event = new ScanEvent();
+        private final long[] tokenCounts = new long[TokenType.values().length];
+        private final long startNanos = System.nanoTime();
+        private final long startAllocated = allocatedBytes();
+        private final int startPosition;
+        private final int startErrors;
+
+        private Recorder(int startPosition, int startErrors) {
+            this.startPosition = startPosition;
+            this.startErrors = startErrors;
+            event.begin();
+        }
+
+        void count(TokenType type) {
+            tokenCounts[type.ordinal()]++;
+        }
+
+        /**
+         * Adds the scan to the metrics, and commits its event. Must be called by the thread that created the recorder
+         *
+         * @param position Position where the scanner stopped
+         * @param errors   Amount of errors in the ErrorList of the scanner
+         */
+        void finish(int position, int errors) {
+            long nanos = System.nanoTime() - startNanos;
+            long allocated = startAllocated == -1 ? -1 : allocatedBytes() - startAllocated;
+            long tokens = 0;
+            for (long count : tokenCounts) tokens += count;
+
+            totals.add(position - startPosition, tokens, tokenCounts, errors - startErrors, nanos, allocated);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.chars = position - startPosition;
+                event.tokens = tokens;
+                event.errors = errors - startErrors;
+                event.allocated = allocated;
+                event.commit();
+            }
+        }
+    }
+
+    private static final class Totals implements ScanMetrics {
+        private final LongAdder scans = new LongAdder();
+        private final LongAdder chars = new LongAdder();
+        private final LongAdder tokens = new LongAdder();
+        private final AtomicLongArray tokensByType = new AtomicLongArray(TokenType.values().length);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder allocated = new LongAdder();
+
+        void add(long chars, long tokens, long[] tokenCounts, long errors, long nanos, long allocated) {
+            this.scans.increment();
+            this.chars.add(chars);
+            this.tokens.add(tokens);
+            for (int i = 0; i < tokenCounts.length; i++) {
+                if (tokenCounts[i] != 0) tokensByType.addAndGet(i, tokenCounts[i]);
+            }
+            this.errors.add(errors);
+            this.nanos.add(nanos);
+            if (allocated > 0) this.allocated.add(allocated);
+        }
+
+        void reset() {
+            scans.reset();
+            chars.reset();
+            tokens.reset();
+            for (int i = 0; i < tokensByType.length(); i++) tokensByType.set(i, 0);
+            errors.reset();
+            nanos.reset();
+            allocated.reset();
+        }
+
+        @Override
+        public long getScanCount() {
+            return scans.sum();
+        }
+
+        @Override
+        public long getCharCount() {
+            return chars.sum();
+        }
+
+        @Override
+        public long getTokenCount() {
+            return tokens.sum();
+        }
+
+        @Override
+        public long getTokenCount(TokenType type) {
+            return tokensByType.get(type.ordinal());
+        }
+
+        @Override
+        public long getErrorCount() {
+            return errors.sum();
+        }
+
+        @Override
+        public long getScanNanos() {
+            return nanos.sum();
+        }
+
+        @Override
+        public long getAllocatedBytes() {
+            // Nothing was recorded, so the bean that measures allocations may not be loaded yet
+            if (scans.sum() == 0) return 0;
+            return Allocations.threads != null ? allocated.sum() : -1;
+        }
+    }
+}
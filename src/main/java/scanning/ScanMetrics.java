@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+/**
+ * Totals of the scans recorded while ScanInstrumentation was enabled.
+ * Values are updated when a scan finishes, so a scan in progress is not included.
+ */
+public interface ScanMetrics {
+
+    /**
+     * @return Amount of inputs scanned until their EOF token
+     */
+    long getScanCount();
+
+    /**
+     * @return Amount of chars scanned. For a Utf8Input each char is a byte
+     */
+    long getCharCount();
+
+    /**
+     * @return Amount of tokens produced, including EOF tokens
+     */
+    long getTokenCount();
+
+    /**
+     * @return Amount of tokens of a type produced
+     */
+    long getTokenCount(TokenType type);
+
+    /**
+     * @return Amount of errors reported by the scanner
+     */
+    long getErrorCount();
+
+    /**
+     * @return Time spent between the creation of each scanner and its EOF token, in nanoseconds
+     */
+    long getScanNanos();
+
+    /**
+     * @return Bytes allocated by the threads while they scanned, or -1 if the JVM doesn't measure them
+     */
+    long getAllocatedBytes();
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+/**
+ * How much of the input, besides the tokens, is kept by MainScanner.tokenBuffer()
+ */
+public enum ScanMode {
+    // Whitespace and comments are skipped without recording them. Used by the compiler
+    COMPILE,
+    // Whitespace and comments are recorded as Trivia, so the input can be rebuilt from the tokens.
+    // Used by tools that rewrite the input, like a formatter
+    FULL_FIDELITY,
+}
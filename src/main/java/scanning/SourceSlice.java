@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+/**
+ * A view over a region of the input. No chars are copied until toString() is called.
+ */
+public final class SourceSlice implements CharSequence {
+
+    private final CharSequence source;
+    private final int start;
+    private final int end;
+
+    /**
+     * @param source The whole input
+     * @param start  Position of the first char of the slice
+     * @param end    Position after the last char of the slice
+     */
+    public SourceSlice(CharSequence source, int start, int end) {
+        if (start < 0 || end < start || end > source.length()) {
+            throw new IndexOutOfBoundsException("Invalid slice [" + start + ", " + end + ") of an input of length "
+                    + source.length());
+        }
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + (end - start));
+        }
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end < start || end > length()) {
+            throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + ") of a slice of length "
+                    + length());
+        }
+        return new SourceSlice(source, this.start + start, this.start + end);
+    }
+
+    /**
+     * @param s String to compare
+     * @return Whether this slice contains the same chars as s
+     */
+    public boolean contentEquals(String s) {
+        return s.length() == end - start && Utils.regionEquals(source, start, s);
+    }
+
+    /**
+     * Copies the chars of this slice to a new String. If the input is a Utf8Input, they are decoded
+     */
+    @Override
+    public String toString() {
+        return source.subSequence(start, end).toString();
+    }
+}
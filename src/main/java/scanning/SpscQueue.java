@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded queue for exactly one producer thread and one consumer thread, without locks.
+ *
+ * Each counter is written by a single thread, so publishing an item is a plain write to its slot
+ * followed by an ordered write of the tail, which makes the slot visible to the consumer that reads the tail.
+ * Each side keeps a copy of the other side's counter, and reads the real one only when the copy says
+ * the queue is full or empty.
+ */
+final class SpscQueue<T> {
+
+    private final Object[] slots;
+    private final int mask;
+    // Absolute index of the next item to take. Written only by the consumer
+    private final AtomicLong head = new AtomicLong();
+    // Absolute index of the next slot to fill. Written only by the producer
+    private final AtomicLong tail = new AtomicLong();
+    // Last value of head seen by the producer
+    private long cachedHead = 0;
+    // Last value of tail seen by the consumer
+    private long cachedTail = 0;
+
+    /**
+     * @param capacity Maximum amount of items in the queue. It's rounded up to a power of 2
+     */
+    SpscQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of a queue must be at least 1, got " + capacity);
+        }
+        int size = 1;
+        while (size < capacity) {
+            size *= 2;
+        }
+        this.slots = new Object[size];
+        this.mask = size - 1;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Adds an item. Must only be called by the producer thread.
+     *
+     * @return Whether the item was added, or false if the queue is full
+     */
+    boolean offer(T item) {
+        long t = tail.get();
+        if (t - cachedHead == slots.length) {
+            cachedHead = head.get();
+            if (t - cachedHead == slots.length) return false;
+        }
+        slots[(int) t & mask] = item;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Takes the oldest item. Must only be called by the consumer thread.
+     *
+     * @return The oldest item, or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        long h = head.get();
+        if (h == cachedTail) {
+            cachedTail = tail.get();
+            if (h == cachedTail) return null;
+        }
+        int index = (int) h & mask;
+        T item = (T) slots[index];
+        slots[index] = null;
+        head.lazySet(h + 1);
+        return item;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+import java.util.Arrays;
+
+/**
+ * Maps the names of identifiers to dense ids: 0 for the first name interned, 1 for the next, and so on.
+ *
+ * Names are looked up by hashing the chars of the input, so a String is created only
+ * the first time a name is seen. Identifiers can then be compared as ints.
+ * It's not thread safe.
+ */
+public final class SymbolTable {
+
+    // Ids of the names, indexed by their hash. Empty slots are -1. Its size is always a power of 2
+    private int[] slots = new int[64];
+    // Name and hash of each id
+    private String[] names = new String[32];
+    private int[] hashes = new int[32];
+    private int size = 0;
+
+    public SymbolTable() {
+        Arrays.fill(slots, -1);
+    }
+
+    /**
+     * @return The amount of names interned
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param id An id returned by intern()
+     * @return The name with that id
+     */
+    public String name(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Symbol id " + id + " out of bounds for size " + size);
+        }
+        return names[id];
+    }
+
+    /**
+     * Computes the hash used by intern(), which is the same as String.hashCode()
+     */
+    public static int hash(CharSequence input, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + input.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * @return The id of name, adding it if it's not in the table
+     */
+    public int intern(String name) {
+        return intern(name, 0, name.length(), name.hashCode());
+    }
+
+    /**
+     * Returns the id of the chars between start and end, adding them if they are not in the table.
+     *
+     * @param input Where the name is
+     * @param start Absolute position of the first char of the name
+     * @param end   Absolute position after the last char of the name
+     * @param hash  The result of hash(input, start, end)
+     * @return The id of the name
+     */
+    public int intern(CharSequence input, int start, int end, int hash) {
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        int length = end - start;
+
+        while (true) {
+            int id = slots[slot];
+            if (id == -1) break;
+
+            String name = names[id];
+            if (hashes[id] == hash && name.length() == length && Utils.regionEquals(input, start, name)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return add(input.subSequence(start, end).toString(), hash, slot);
+    }
+
+    /**
+     * @return The id of name, or -1 if it's not in the table
+     */
+    public int find(String name) {
+        int hash = name.hashCode();
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+
+        while (true) {
+            int id = slots[slot];
+            if (id == -1) return -1;
+            if (hashes[id] == hash && names[id].equals(name)) return id;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int add(String name, int hash, int slot) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+
+        int id = size;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[slot] = id;
+        size++;
+
+        // Keep the table at most half full
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        Arrays.fill(slots, -1);
+        int mask = slots.length - 1;
+
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (slots[slot] != -1) slot = (slot + 1) & mask;
+            slots[slot] = id;
+        }
+    }
+
+    /**
+     * Spreads the high bits of the hash, because only the low bits select a slot
+     */
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
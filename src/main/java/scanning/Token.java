@@ -15,28 +15,137 @@
 
 package scanning;
 
+import scanning.scanner.NumberScanner;
+
+import java.math.BigInteger;
+
 public class Token {
 
     // Indicates the type of token
     public final TokenType type;
-    // Contains the token as a raw string
-    public final String value;
     // The line number where this token appears
     public final int lineNumber;
     // The absolute position of the start of this token
     public final int position;
+    // The id of the name in the SymbolTable if this is an identifier, or -1
+    public final int symbol;
+    // Which operator this is if it's an Operator, or null
+    public final OperatorKind operator;
+    // The value if this is a number: a long for an Integer, or the bits of a double for a Floating
+    private final long valueBits;
+    // Whether this is a number whose value doesn't fit in valueBits
+    private final boolean overflow;
+    // Contains the token as raw text. Usually a slice of the input
+    private final CharSequence text;
+    // The text as a String, created the first time it's requested
+    private String value;
 
     /**
      * @param type       Indicates the type of token
-     * @param value      Contains the token as a raw string
+     * @param text       Contains the token as raw text
      * @param lineNumber The line number where this token appears
      * @param position   The absolute position of the start of this token
      */
-    public Token(TokenType type, String value, int lineNumber, int position) {
+    public Token(TokenType type, CharSequence text, int lineNumber, int position) {
+        this(type, text, lineNumber, position, -1);
+    }
+
+    /**
+     * @param symbol The id of the name in the SymbolTable, if this is an identifier
+     */
+    public Token(TokenType type, CharSequence text, int lineNumber, int position, int symbol) {
+        this(type, text, lineNumber, position, symbol, null, 0, false);
+    }
+
+    /**
+     * @param operator Which operator this is, if it's an Operator
+     */
+    public Token(TokenType type, CharSequence text, int lineNumber, int position, OperatorKind operator) {
+        this(type, text, lineNumber, position, -1, operator, 0, false);
+    }
+
+    /**
+     * Creates a number token with its value
+     *
+     * @param valueBits A long for an Integer, or the bits of a double for a Floating
+     * @param overflow  Whether the value doesn't fit in a long or a double
+     */
+    public Token(TokenType type, CharSequence text, int lineNumber, int position, long valueBits, boolean overflow) {
+        this(type, text, lineNumber, position, -1, null, valueBits, overflow);
+    }
+
+    private Token(TokenType type, CharSequence text, int lineNumber, int position, int symbol,
+                  OperatorKind operator, long valueBits, boolean overflow) {
         this.type = type;
-        this.value = value;
+        this.text = text;
         this.lineNumber = lineNumber;
         this.position = position;
+        this.symbol = symbol;
+        // Operators created without a kind are looked up by their text
+        this.operator = operator == null && type == TokenType.Operator ? OperatorKind.of(text) : operator;
+        this.valueBits = valueBits;
+        this.overflow = overflow;
+    }
+
+    /**
+     * @return The text of the token, without copying it from the input
+     */
+    public CharSequence getText() {
+        return value != null ? value : text;
+    }
+
+    /**
+     * @return The text of the token as a String. It's copied from the input only on the first call
+     */
+    public String getValue() {
+        if (value == null) {
+            value = text.toString();
+        }
+        return value;
+    }
+
+    /**
+     * @return Whether this is a number whose value doesn't fit in a long or a double.
+     * Its value is available with getExactValue()
+     */
+    public boolean isOverflow() {
+        return overflow;
+    }
+
+    /**
+     * @return The value of an Integer
+     * @throws IllegalStateException if this is not an Integer, or its value overflows
+     */
+    public long getLongValue() {
+        if (type != TokenType.Integer || overflow) {
+            throw new IllegalStateException("Token doesn't have a long value: " + getValue());
+        }
+        return valueBits;
+    }
+
+    /**
+     * @return The value of a Floating, or of an Integer converted to double
+     * @throws IllegalStateException if this is not a number
+     */
+    public double getDoubleValue() {
+        if (type == TokenType.Floating) return Double.longBitsToDouble(valueBits);
+        if (type == TokenType.Integer) {
+            return overflow ? ((BigInteger) getExactValue()).doubleValue() : valueBits;
+        }
+        throw new IllegalStateException("Token is not a number: " + getValue());
+    }
+
+    /**
+     * @return The value of a number as a Long or a Double, or as a BigInteger or a BigDecimal if it overflows
+     * @throws IllegalStateException if this is not a number
+     */
+    public Number getExactValue() {
+        if (type != TokenType.Integer && type != TokenType.Floating) {
+            throw new IllegalStateException("Token is not a number: " + getValue());
+        }
+        if (overflow) return NumberScanner.parseExact(type, getValue());
+        if (type == TokenType.Integer) return valueBits;
+        return Double.longBitsToDouble(valueBits);
     }
 
 }
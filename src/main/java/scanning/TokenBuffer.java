@@ -0,0 +1,648 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import scanning.scanner.NumberScanner;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Stores tokens as parallel arrays of primitives, instead of one Token object per token.
+ *
+ * The text of a token is not stored, it's a slice of the input.
+ * The only exception are strings with escape characters, whose decoded value is kept aside.
+ * Identifiers also store the id of their name in a SymbolTable, numbers store their value,
+ * and operators store their OperatorKind.
+ * Line numbers are not stored either: they are found from the position of the token in a LineMap,
+ * created the first time a line or column is requested.
+ *
+ * The arrays have a gap where tokens are added, which is at the end unless the buffer is edited in place
+ * by an IncrementalScanner. Tokens after the gap store their position relative to the end of the input,
+ * so an edit before them doesn't have to update them.
+ */
+public class TokenBuffer {
+
+    private static final TokenType[] tokenTypes = TokenType.values();
+    private static final OperatorKind[] operatorKinds = OperatorKind.values();
+
+    private final CharSequence input;
+    // Where the names of identifiers are interned
+    private final SymbolTable symbolTable;
+    private int size = 0;
+    // Tokens are stored in [0, gapStart) and [gapEnd, capacity) of the arrays
+    private int gapStart = 0;
+    private int gapEnd;
+    // Amount added to the stored position of the tokens after the gap
+    private int afterGapDelta = 0;
+    // TokenType ordinal of each token
+    private byte[] types;
+    // Position of the first char of each token
+    private int[] starts;
+    // Amount of chars of the input that each token spans
+    private int[] lengths;
+    // Id of the name of each identifier, index in numberValues of each number, OperatorKind ordinal of
+    // each operator, index in decodedValues of each string with escape characters, or -1 for other tokens
+    private int[] payloads;
+
+    // Value of each string that is different from the input, in order of appearance
+    private String[] decodedValues = new String[0];
+    private int decodedSize = 0;
+
+    // Value of each number, and whether it overflows, in order of appearance
+    private long[] numberValues = new long[0];
+    private boolean[] numberOverflows = new boolean[0];
+    private int numberSize = 0;
+
+    // Lines of the input, created by the first call to getLineMap()
+    private LineMap lineMap;
+    // Chars between the tokens, or null if the input was scanned in ScanMode.COMPILE
+    private Trivia trivia;
+
+    public TokenBuffer(CharSequence input) {
+        this(input, 64);
+    }
+
+    public TokenBuffer(CharSequence input, int initialCapacity) {
+        this(input, initialCapacity, new SymbolTable());
+    }
+
+    /**
+     * @param symbolTable Where the symbols of the identifiers added are interned
+     */
+    public TokenBuffer(CharSequence input, int initialCapacity, SymbolTable symbolTable) {
+        this.input = input;
+        this.symbolTable = symbolTable;
+        int capacity = Math.max(initialCapacity, 1);
+        types = new byte[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        payloads = new int[capacity];
+        gapEnd = capacity;
+    }
+
+    public CharSequence getInput() {
+        return input;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * @return The chars between the tokens, or null if they were not kept
+     */
+    public Trivia getTrivia() {
+        return trivia;
+    }
+
+    void setTrivia(Trivia trivia) {
+        this.trivia = trivia;
+    }
+
+    /**
+     * @return The number of tokens stored
+     */
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(int index) {
+        checkIndex(index);
+        return tokenTypes[types[slot(index)]];
+    }
+
+    public int position(int index) {
+        checkIndex(index);
+        return start(index);
+    }
+
+    public int length(int index) {
+        checkIndex(index);
+        return lengths[slot(index)];
+    }
+
+    /**
+     * @return The line where the token starts, found in the LineMap of the input
+     */
+    public int lineNumber(int index) {
+        checkIndex(index);
+        return getLineMap().lineOf(start(index));
+    }
+
+    /**
+     * @return The amount of chars between the start of the line and the start of the token
+     */
+    public int column(int index) {
+        checkIndex(index);
+        return getLineMap().columnOf(start(index));
+    }
+
+    /**
+     * @return The index in getTrivia() of the first range between the previous token and this one
+     * @throws IllegalStateException if the trivia were not kept
+     */
+    public int leadingTriviaStart(int index) {
+        checkIndex(index);
+        checkTrivia();
+        return trivia.firstAt(index == 0 ? 0 : start(index - 1) + lengths[slot(index - 1)]);
+    }
+
+    /**
+     * @return The index in getTrivia() after the last range between the previous token and this one
+     * @throws IllegalStateException if the trivia were not kept
+     */
+    public int leadingTriviaEnd(int index) {
+        checkIndex(index);
+        checkTrivia();
+        return trivia.firstAt(start(index));
+    }
+
+    private void checkTrivia() {
+        if (trivia == null) {
+            throw new IllegalStateException("Trivia are only kept when scanning in ScanMode.FULL_FIDELITY");
+        }
+    }
+
+    /**
+     * @return The lines of the input. They are found on the first call
+     */
+    public LineMap getLineMap() {
+        if (lineMap == null) {
+            lineMap = LineMap.of(input);
+        }
+        return lineMap;
+    }
+
+    /**
+     * @return The id of the name of the token in the SymbolTable, or -1 if it's not an identifier
+     */
+    public int symbol(int index) {
+        checkIndex(index);
+        return type(index) == TokenType.Identifier ? payloads[slot(index)] : -1;
+    }
+
+    /**
+     * @return Which operator the token is, or null if it's not an Operator
+     */
+    public OperatorKind operator(int index) {
+        checkIndex(index);
+        return type(index) == TokenType.Operator ? operatorKinds[payloads[slot(index)]] : null;
+    }
+
+    /**
+     * Returns the text of a token, without copying it from the input
+     *
+     * @param index Index of the token
+     * @return The text of the token, the same that Token.getText() would contain
+     */
+    public CharSequence text(int index) {
+        checkIndex(index);
+        int slot = slot(index);
+        int start = start(index);
+        int length = lengths[slot];
+
+        switch (tokenTypes[types[slot]]) {
+            case String: {
+                if (payloads[slot] >= 0) return decodedValues[payloads[slot]];
+                // Skip the opening quote and the closing quote or new line
+                return new SourceSlice(input, start + 1, start + length - 1);
+            }
+            case Unit: {
+                return "()";
+            }
+            case Operator: {
+                String spelling = operatorKinds[payloads[slot]].getSpelling();
+                if (spelling != null) return spelling;
+                return new SourceSlice(input, start, start + length);
+            }
+            default: {
+                return new SourceSlice(input, start, start + length);
+            }
+        }
+    }
+
+    /**
+     * @param index Index of the token
+     * @return The text of the token as a new String
+     */
+    public String value(int index) {
+        return text(index).toString();
+    }
+
+    /**
+     * Creates a Token object with the contents of the token at index
+     *
+     * @param index Index of the token
+     * @return A new Token
+     */
+    public Token get(int index) {
+        TokenType type = type(index);
+        if (type == TokenType.Integer || type == TokenType.Floating) {
+            int payload = payloads[slot(index)];
+            return new Token(type, text(index), lineNumber(index), start(index), numberValues[payload],
+                    numberOverflows[payload]);
+        }
+        if (type == TokenType.Operator) {
+            return new Token(type, text(index), lineNumber(index), start(index), operator(index));
+        }
+        return new Token(type, text(index), lineNumber(index), position(index), symbol(index));
+    }
+
+    /**
+     * @return A cursor positioned at the first token
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Adds a token whose value can be taken from the input.
+     *
+     * @param type   The type of token
+     * @param start  The position of the first char of the token
+     * @param length The amount of chars the token spans
+     */
+    public void add(TokenType type, int start, int length) {
+        if (type == TokenType.Integer || type == TokenType.Floating) {
+            addParsedNumber(type, start, length);
+            return;
+        }
+        if (type == TokenType.Operator) {
+            addOperator(start, length, OperatorKind.of(input.subSequence(start, start + length)));
+            return;
+        }
+        add(type, start, length, -1);
+    }
+
+    /**
+     * Adds a number whose value wasn't computed while it was scanned, parsing its text
+     */
+    private void addParsedNumber(TokenType type, int start, int length) {
+        Number value = NumberScanner.parseExact(type, input.subSequence(start, start + length).toString());
+        if (type == TokenType.Integer) {
+            BigInteger integer = (BigInteger) value;
+            addNumber(type, start, length, integer.longValue(), integer.bitLength() > 63);
+        } else {
+            double floating = ((BigDecimal) value).doubleValue();
+            addNumber(type, start, length, Double.doubleToRawLongBits(floating),
+                    Double.isInfinite(floating));
+        }
+    }
+
+    /**
+     * Adds an identifier.
+     *
+     * @param start  The position of the first char of the identifier
+     * @param length The amount of chars of the identifier
+     * @param symbol The id of the name of the identifier in the SymbolTable of this buffer
+     */
+    public void addIdentifier(int start, int length, int symbol) {
+        add(TokenType.Identifier, start, length, symbol);
+    }
+
+    /**
+     * Adds an operator.
+     *
+     * @param start  The position of the first char of the operator
+     * @param length The amount of chars of the operator
+     * @param kind   Which operator it is
+     */
+    public void addOperator(int start, int length, OperatorKind kind) {
+        add(TokenType.Operator, start, length, kind.ordinal());
+    }
+
+    /**
+     * Adds a number with its value.
+     *
+     * @param type      Integer or Floating
+     * @param start     The position of the first char of the number
+     * @param length    The amount of chars of the number
+     * @param valueBits A long for an Integer, or the bits of a double for a Floating
+     * @param overflow  Whether the value doesn't fit in a long or a double
+     */
+    public void addNumber(TokenType type, int start, int length, long valueBits, boolean overflow) {
+        add(type, start, length, addNumberValue(valueBits, overflow));
+    }
+
+    /**
+     * @return Whether the token is a number whose value doesn't fit in a long or a double
+     */
+    public boolean isOverflow(int index) {
+        TokenType type = type(index);
+        if (type != TokenType.Integer && type != TokenType.Floating) return false;
+        return numberOverflows[payloads[slot(index)]];
+    }
+
+    /**
+     * @return The value of an Integer
+     * @throws IllegalStateException if the token is not an Integer, or its value overflows
+     */
+    public long longValue(int index) {
+        if (type(index) != TokenType.Integer || isOverflow(index)) {
+            throw new IllegalStateException("Token " + index + " doesn't have a long value");
+        }
+        return numberValues[payloads[slot(index)]];
+    }
+
+    /**
+     * @return The value of a Floating, or of an Integer converted to double
+     * @throws IllegalStateException if the token is not a number
+     */
+    public double doubleValue(int index) {
+        return get(index).getDoubleValue();
+    }
+
+    /**
+     * @return The value of a number as a Long or a Double, or as a BigInteger or a BigDecimal if it overflows
+     * @throws IllegalStateException if the token is not a number
+     */
+    public Number exactValue(int index) {
+        return get(index).getExactValue();
+    }
+
+    private int addNumberValue(long valueBits, boolean overflow) {
+        if (numberSize == numberValues.length) {
+            int newLength = Math.max(numberValues.length * 2, 16);
+            numberValues = Arrays.copyOf(numberValues, newLength);
+            numberOverflows = Arrays.copyOf(numberOverflows, newLength);
+        }
+        numberValues[numberSize] = valueBits;
+        numberOverflows[numberSize] = overflow;
+        return numberSize++;
+    }
+
+    private int addDecodedValue(String value) {
+        if (decodedSize == decodedValues.length) {
+            decodedValues = Arrays.copyOf(decodedValues, Math.max(decodedValues.length * 2, 8));
+        }
+        decodedValues[decodedSize] = value;
+        return decodedSize++;
+    }
+
+    private void add(TokenType type, int start, int length, int payload) {
+        if (gapStart == gapEnd) {
+            grow();
+        }
+        types[gapStart] = (byte) type.ordinal();
+        starts[gapStart] = start;
+        lengths[gapStart] = length;
+        payloads[gapStart] = payload;
+        gapStart++;
+        size++;
+    }
+
+    /**
+     * Adds a string token whose value is different from the input, because it had escape characters.
+     *
+     * @param start        The position of the opening quote
+     * @param length       The amount of chars the string spans, including quotes
+     * @param decodedValue The value of the string after processing escape characters
+     */
+    public void addDecodedString(int start, int length, String decodedValue) {
+        add(TokenType.String, start, length, addDecodedValue(decodedValue));
+    }
+
+    /**
+     * Copies the tokens of other between from and to, moving them by a number of chars
+     *
+     * @param other         Buffer over an input that contains the same tokens, maybe at other positions
+     * @param from          Index of the first token to copy
+     * @param to            Index after the last token to copy
+     * @param positionDelta Amount added to the position of each token
+     * @param symbolMap     The id in this buffer of each symbol of other, or null if both use the same SymbolTable
+     */
+    void addAll(TokenBuffer other, int from, int to, int positionDelta, int[] symbolMap) {
+        int beforeGap = Math.max(Math.min(to, other.gapStart) - from, 0);
+        addSlots(other, from, beforeGap, positionDelta, symbolMap);
+        addSlots(other, other.slot(from + beforeGap), to - from - beforeGap, positionDelta + other.afterGapDelta,
+                symbolMap);
+    }
+
+    /**
+     * Copies count consecutive slots of the arrays of other, starting at the slot first
+     */
+    private void addSlots(TokenBuffer other, int first, int count, int positionDelta, int[] symbolMap) {
+        while (gapEnd - gapStart < count) {
+            grow();
+        }
+
+        System.arraycopy(other.types, first, types, gapStart, count);
+        System.arraycopy(other.lengths, first, lengths, gapStart, count);
+        for (int i = 0; i < count; i++) {
+            starts[gapStart + i] = other.starts[first + i] + positionDelta;
+        }
+        for (int i = 0; i < count; i++) {
+            int payload = other.payloads[first + i];
+            TokenType type = tokenTypes[other.types[first + i]];
+            if (type == TokenType.Identifier && symbolMap != null) {
+                payload = symbolMap[payload];
+            } else if (type == TokenType.Integer || type == TokenType.Floating) {
+                payload = addNumberValue(other.numberValues[payload], other.numberOverflows[payload]);
+            } else if (type == TokenType.String && payload >= 0) {
+                payload = addDecodedValue(other.decodedValues[payload]);
+            }
+            payloads[gapStart + i] = payload;
+        }
+
+        gapStart += count;
+        size += count;
+    }
+
+    /**
+     * @return The index of the first token at or after position, or size() if there is none
+     */
+    int firstTokenAt(int position) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (start(middle) < position) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Moves the gap before the token at index, so tokens can be added there.
+     * The tokens after the gap keep their position relative to the end of the input.
+     *
+     * @return The amount of tokens moved
+     */
+    int moveGap(int index) {
+        if (index < gapStart) {
+            int count = gapStart - index;
+            moveSlots(index, gapEnd - count, count);
+            for (int i = gapEnd - count; i < gapEnd; i++) {
+                starts[i] -= afterGapDelta;
+            }
+            gapStart -= count;
+            gapEnd -= count;
+            return count;
+        }
+        int count = index - gapStart;
+        moveSlots(gapEnd, gapStart, count);
+        for (int i = gapStart; i < gapStart + count; i++) {
+            starts[i] += afterGapDelta;
+        }
+        gapStart += count;
+        gapEnd += count;
+        return count;
+    }
+
+    /**
+     * Called after the input is edited before the gap.
+     *
+     * @param positionDelta Amount of chars inserted, negative if they were removed
+     */
+    void inputEdited(int positionDelta) {
+        afterGapDelta += positionDelta;
+        lineMap = null;
+    }
+
+    /**
+     * Removes the tokens after the gap that start before position.
+     * The values of the numbers and strings removed are not reclaimed.
+     */
+    void removeAfterGap(int position) {
+        while (gapEnd < types.length && starts[gapEnd] + afterGapDelta < position) {
+            gapEnd++;
+            size--;
+        }
+    }
+
+    private void moveSlots(int from, int to, int count) {
+        System.arraycopy(types, from, types, to, count);
+        System.arraycopy(starts, from, starts, to, count);
+        System.arraycopy(lengths, from, lengths, to, count);
+        System.arraycopy(payloads, from, payloads, to, count);
+    }
+
+    private void grow() {
+        int newCapacity = types.length * 2;
+        int afterGap = types.length - gapEnd;
+        int newGapEnd = newCapacity - afterGap;
+
+        byte[] newTypes = new byte[newCapacity];
+        int[] newStarts = new int[newCapacity];
+        int[] newLengths = new int[newCapacity];
+        int[] newPayloads = new int[newCapacity];
+
+        System.arraycopy(types, 0, newTypes, 0, gapStart);
+        System.arraycopy(starts, 0, newStarts, 0, gapStart);
+        System.arraycopy(lengths, 0, newLengths, 0, gapStart);
+        System.arraycopy(payloads, 0, newPayloads, 0, gapStart);
+        System.arraycopy(types, gapEnd, newTypes, newGapEnd, afterGap);
+        System.arraycopy(starts, gapEnd, newStarts, newGapEnd, afterGap);
+        System.arraycopy(lengths, gapEnd, newLengths, newGapEnd, afterGap);
+        System.arraycopy(payloads, gapEnd, newPayloads, newGapEnd, afterGap);
+
+        types = newTypes;
+        starts = newStarts;
+        lengths = newLengths;
+        payloads = newPayloads;
+        gapEnd = newGapEnd;
+    }
+
+    /**
+     * @return The index in the arrays of the token at index
+     */
+    private int slot(int index) {
+        return index < gapStart ? index : index + gapEnd - gapStart;
+    }
+
+    /**
+     * @return The position of the token at index
+     */
+    private int start(int index) {
+        return index < gapStart ? starts[index] : starts[index + gapEnd - gapStart] + afterGapDelta;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    /**
+     * A movable view over the tokens of the buffer. It exposes the same fields as Token,
+     * without creating an object per token.
+     */
+    public class Cursor {
+        private int index = 0;
+
+        private Cursor() {}
+
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return Whether the cursor points to a token
+         */
+        public boolean isValid() {
+            return index < size;
+        }
+
+        /**
+         * Moves the cursor to the next token
+         */
+        public void advance() {
+            index++;
+        }
+
+        public void moveTo(int index) {
+            this.index = index;
+        }
+
+        public TokenType type() {
+            return TokenBuffer.this.type(index);
+        }
+
+        public CharSequence text() {
+            return TokenBuffer.this.text(index);
+        }
+
+        public String value() {
+            return TokenBuffer.this.value(index);
+        }
+
+        public int lineNumber() {
+            return TokenBuffer.this.lineNumber(index);
+        }
+
+        public int column() {
+            return TokenBuffer.this.column(index);
+        }
+
+        public int symbol() {
+            return TokenBuffer.this.symbol(index);
+        }
+
+        public OperatorKind operator() {
+            return TokenBuffer.this.operator(index);
+        }
+
+        public int position() {
+            return TokenBuffer.this.position(index);
+        }
+
+        public int length() {
+            return TokenBuffer.this.length(index);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+/**
+ * Pulls tokens from a MainScanner as they are needed, reads them from a TokenBuffer,
+ * or takes them from a PipelinedScanner that scans in another thread.
+ *
+ * Only the tokens that can still be reached with peek() or reset() are kept in memory,
+ * so the amount of live tokens doesn't depend on the size of the input.
+ * Once the EOF token is reached, next() keeps returning it.
+ *
+ * A stream created with a lookahead can only peek that many tokens ahead, and keeps them
+ * in a ring buffer of a fixed size. The buffer grows only to keep the tokens after a mark,
+ * and goes back to its size once every mark is removed.
+ */
+public class TokenStream {
+
+    // Lookahead of a stream that can peek any amount of tokens ahead
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    // Where tokens come from. Only one of these is set
+    private final MainScanner mainScanner;
+    private final TokenBuffer tokenBuffer;
+    private final PipelinedScanner pipeline;
+    // Index of the next token to take from tokenBuffer
+    private int bufferIndex = 0;
+    // Maximum amount of tokens that can be peeked, counting the next one
+    private final int lookahead;
+    // Size of the buffer when there are no marks
+    private final int capacity;
+    // Circular buffer with the tokens that haven't been discarded. Its size is always a power of 2
+    private Token[] buffer;
+    // Absolute index of the oldest token in the buffer
+    private int head = 0;
+    // Absolute index after the newest token in the buffer
+    private int tail = 0;
+    // Absolute index of the token returned by the next call to next()
+    private int position = 0;
+    // Positions saved by mark(), used as a stack
+    private int[] marks = new int[4];
+    private int markCount = 0;
+    // Whether the EOF token was already buffered
+    private boolean reachedEOF = false;
+
+    public TokenStream(MainScanner mainScanner) {
+        this(mainScanner, null, null, UNBOUNDED);
+    }
+
+    /**
+     * Creates a stream that keeps a fixed amount of tokens in memory, so the parser can start
+     * working before the input is scanned, and the tokens it already consumed can be collected.
+     *
+     * @param lookahead Amount of tokens that can be peeked, counting the next one. peek(k) requires k &lt; lookahead
+     */
+    public TokenStream(MainScanner mainScanner, int lookahead) {
+        this(mainScanner, null, null, lookahead);
+    }
+
+    /**
+     * Creates a stream over tokens that were already scanned. Token objects are created
+     * only for the tokens that are read.
+     *
+     * @param tokenBuffer A buffer that ends with an EOF token, like the one returned by MainScanner.tokenBuffer()
+     */
+    public TokenStream(TokenBuffer tokenBuffer) {
+        this(null, tokenBuffer, null, UNBOUNDED);
+    }
+
+    /**
+     * @param lookahead Amount of tokens that can be peeked, counting the next one. peek(k) requires k &lt; lookahead
+     */
+    public TokenStream(TokenBuffer tokenBuffer, int lookahead) {
+        this(null, tokenBuffer, null, lookahead);
+    }
+
+    /**
+     * Creates a stream over tokens scanned in another thread. Use PipelinedScanner.tokenStream()
+     */
+    TokenStream(PipelinedScanner pipeline, int lookahead) {
+        this(null, null, pipeline, lookahead);
+    }
+
+    private TokenStream(MainScanner mainScanner, TokenBuffer tokenBuffer, PipelinedScanner pipeline, int lookahead) {
+        if (lookahead < 1) {
+            throw new IllegalArgumentException("The lookahead of a TokenStream must be at least 1, got " + lookahead);
+        }
+        this.mainScanner = mainScanner;
+        this.tokenBuffer = tokenBuffer;
+        this.pipeline = pipeline;
+        this.lookahead = lookahead;
+
+        int capacity = 16;
+        if (lookahead != UNBOUNDED) {
+            capacity = 2;
+            while (capacity < lookahead) {
+                capacity *= 2;
+            }
+        }
+        this.capacity = capacity;
+        this.buffer = new Token[capacity];
+    }
+
+    /**
+     * Consumes and returns the next token.
+     *
+     * @return The next token, or the EOF token if there are no tokens left
+     */
+    public Token next() {
+        Token t = peek(0);
+        if (t.type != TokenType.EOF) {
+            position++;
+            discard();
+        }
+        return t;
+    }
+
+    /**
+     * @return The next token without consuming it
+     */
+    public Token peek() {
+        return peek(0);
+    }
+
+    /**
+     * Returns the token k positions ahead without consuming anything.
+     * peek(0) is the token that next() will return.
+     *
+     * @param k Number of tokens to look ahead
+     * @return The token k positions ahead, or the EOF token if the input ends before it
+     * @throws IllegalArgumentException if k is negative, or not less than the lookahead of this stream
+     */
+    public Token peek(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Attempted to peek a negative amount of tokens");
+        }
+        if (k >= lookahead) {
+            throw new IllegalArgumentException("Attempted to peek " + k + " tokens ahead, but the lookahead is "
+                    + lookahead);
+        }
+
+        int target = position + k;
+        while (tail <= target) {
+            if (!fill()) {
+                // Only EOF remains
+                return buffer[(tail - 1) & (buffer.length - 1)];
+            }
+        }
+        return buffer[target & (buffer.length - 1)];
+    }
+
+    /**
+     * @return Amount of tokens that can be peeked, counting the next one
+     */
+    public int getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * @return Amount of tokens the buffer can hold before it grows
+     */
+    int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Saves the current position, so it can be restored with reset().
+     * Marks are nested: each call to mark() must be followed by a call to reset() or release().
+     */
+    public void mark() {
+        if (markCount == marks.length) {
+            int[] newMarks = new int[marks.length * 2];
+            System.arraycopy(marks, 0, newMarks, 0, markCount);
+            marks = newMarks;
+        }
+        marks[markCount] = position;
+        markCount++;
+    }
+
+    /**
+     * Returns to the position saved by the last call to mark(), and removes that mark.
+     * @throws IllegalStateException if there is no mark
+     */
+    public void reset() {
+        if (markCount == 0) {
+            throw new IllegalStateException("Attempted to reset a TokenStream without a mark");
+        }
+        markCount--;
+        position = marks[markCount];
+        discard();
+    }
+
+    /**
+     * Removes the mark saved by the last call to mark(), without changing the position.
+     * @throws IllegalStateException if there is no mark
+     */
+    public void release() {
+        if (markCount == 0) {
+            throw new IllegalStateException("Attempted to release a TokenStream without a mark");
+        }
+        markCount--;
+        discard();
+    }
+
+    /**
+     * Scans tokens from the MainScanner, or reads them from the TokenBuffer, and adds them to the buffer.
+     *
+     * @return Whether new tokens were added
+     */
+    private boolean fill() {
+        if (reachedEOF) return false;
+
+        if (tokenBuffer != null) {
+            if (bufferIndex >= tokenBuffer.size()) {
+                throw new IllegalStateException("TokenBuffer doesn't end with an EOF token");
+            }
+            Token t = tokenBuffer.get(bufferIndex);
+            bufferIndex++;
+            add(t);
+            reachedEOF = t.type == TokenType.EOF;
+            return true;
+        }
+
+        if (pipeline != null) {
+            Token t = pipeline.take();
+            add(t);
+            reachedEOF = t.type == TokenType.EOF;
+            return true;
+        }
+
+        while (mainScanner.hasNext()) {
+            Token t = mainScanner.nextToken();
+            // If an unknown character is found
+            if (t == null) continue;
+
+            add(t);
+            return true;
+        }
+
+        add(mainScanner.eofToken());
+        reachedEOF = true;
+        return true;
+    }
+
+    private void add(Token token) {
+        if (tail - head == buffer.length) {
+            grow();
+        }
+        buffer[tail & (buffer.length - 1)] = token;
+        tail++;
+    }
+
+    private void grow() {
+        resize(buffer.length * 2);
+    }
+
+    private void resize(int size) {
+        Token[] newBuffer = new Token[size];
+        for (int i = head; i < tail; i++) {
+            newBuffer[i & (newBuffer.length - 1)] = buffer[i & (buffer.length - 1)];
+        }
+        buffer = newBuffer;
+    }
+
+    /**
+     * Removes the tokens that can't be reached anymore
+     */
+    private void discard() {
+        int keepFrom = markCount == 0 ? position : marks[0];
+        while (head < keepFrom) {
+            buffer[head & (buffer.length - 1)] = null;
+            head++;
+        }
+
+        // A bounded stream returns to its size after a mark made it grow
+        if (lookahead != UNBOUNDED && markCount == 0 && buffer.length > capacity && tail - head <= capacity) {
+            resize(capacity);
+        }
+    }
+}
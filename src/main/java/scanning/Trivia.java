@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+/**
+ * The ranges of the input between tokens, in ascending order: whitespace, new lines, comments and unknown chars.
+ * Like TokenBuffer, it stores parallel arrays of primitives, and the text is a slice of the input.
+ *
+ * Trivia are attached to the token that follows them, see TokenBuffer.leadingTriviaStart().
+ * The chars after the last token are attached to the EOF token.
+ */
+public final class Trivia {
+
+    private static final TriviaKind[] triviaKinds = TriviaKind.values();
+
+    private final CharSequence input;
+    private int size = 0;
+    // TriviaKind ordinal of each range
+    private byte[] kinds = new byte[64];
+    // Position of the first char of each range
+    private int[] starts = new int[64];
+    // Amount of chars of each range
+    private int[] lengths = new int[64];
+
+    Trivia(CharSequence input) {
+        this.input = input;
+    }
+
+    /**
+     * @return The number of ranges stored
+     */
+    public int size() {
+        return size;
+    }
+
+    public TriviaKind kind(int index) {
+        checkIndex(index);
+        return triviaKinds[kinds[index]];
+    }
+
+    public int position(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    public int length(int index) {
+        checkIndex(index);
+        return lengths[index];
+    }
+
+    /**
+     * @return The chars of the range, without copying them from the input
+     */
+    public CharSequence text(int index) {
+        checkIndex(index);
+        return new SourceSlice(input, starts[index], starts[index] + lengths[index]);
+    }
+
+    /**
+     * Adds a range after the last one. Nothing is added if the range is empty.
+     *
+     * @param kind  What the chars are
+     * @param start Position of the first char
+     * @param end   Position after the last char
+     */
+    void add(TriviaKind kind, int start, int end) {
+        if (end <= start) return;
+        if (size == kinds.length) {
+            grow();
+        }
+        kinds[size] = (byte) kind.ordinal();
+        starts[size] = start;
+        lengths[size] = end - start;
+        size++;
+    }
+
+    /**
+     * @return The index of the first range at or after position, or size() if there is none
+     */
+    int firstAt(int position) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < position) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    private void grow() {
+        int newCapacity = kinds.length * 2;
+
+        byte[] newKinds = new byte[newCapacity];
+        int[] newStarts = new int[newCapacity];
+        int[] newLengths = new int[newCapacity];
+
+        System.arraycopy(kinds, 0, newKinds, 0, size);
+        System.arraycopy(starts, 0, newStarts, 0, size);
+        System.arraycopy(lengths, 0, newLengths, 0, size);
+
+        kinds = newKinds;
+        starts = newStarts;
+        lengths = newLengths;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Trivia index " + index + " out of bounds for size " + size);
+        }
+    }
+}
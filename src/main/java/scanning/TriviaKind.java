@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+/**
+ * Kinds of chars between tokens, kept only when the input is scanned in ScanMode.FULL_FIDELITY
+ */
+public enum TriviaKind {
+    // Spaces, including the indentation of a line
+    Whitespace,
+    // One or more new lines
+    NewLine,
+    // A comment, from // to the end of the line, without the new line
+    Comment,
+    // Chars that no scanner recognizes
+    Unknown,
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Input encoded as UTF-8, scanned without decoding it first.
+ *
+ * Each char of this sequence is one byte of the input, so positions are byte offsets.
+ * Every char that Misti uses outside of strings is ASCII, and ASCII chars are encoded
+ * as a single byte in UTF-8, so the scanners work over the bytes directly.
+ * Bytes of multibyte chars are always 0x80 or higher, so they are never mistaken for ASCII.
+ *
+ * toString() decodes the bytes, so the value of a token is decoded only when it's requested.
+ */
+public final class Utf8Input implements CharSequence {
+
+    // Set when the bytes are in a heap array, because reading from it is faster
+    private final byte[] array;
+    // Set when the bytes are in a buffer without an array, like a MappedByteBuffer
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    public Utf8Input(byte[] bytes) {
+        this(bytes, null, 0, bytes.length);
+    }
+
+    /**
+     * @param buffer Buffer with the input between its position and its limit
+     */
+    public Utf8Input(ByteBuffer buffer) {
+        this(
+                buffer.hasArray() ? buffer.array() : null,
+                buffer.hasArray() ? null : buffer,
+                buffer.hasArray() ? buffer.arrayOffset() + buffer.position() : buffer.position(),
+                buffer.remaining()
+        );
+    }
+
+    private Utf8Input(byte[] array, ByteBuffer buffer, int offset, int length) {
+        this.array = array;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Maps a file to memory. The file is read by the OS as it's scanned,
+     * and its contents are never copied to the heap.
+     *
+     * @param path The file to map
+     * @return An input with the contents of the file
+     * @throws IOException if the file can't be read, or is larger than 2 GB
+     */
+    public static Utf8Input fromFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to be scanned: " + path);
+            }
+            return new Utf8Input(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Decodes chars taken from a Utf8Input, where each char holds one byte.
+     *
+     * @param bytes Chars whose values are bytes of UTF-8
+     * @return The decoded text
+     */
+    public static String decode(CharSequence bytes) {
+        int length = bytes.length();
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (byte) bytes.charAt(i);
+        }
+        return new String(result, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The array with the bytes, or null if they are in a buffer without an array
+     */
+    byte[] array() {
+        return array;
+    }
+
+    /**
+     * @return The index in array() of the first byte
+     */
+    int arrayOffset() {
+        return offset;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return The byte at index, as a char between 0 and 255
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        if (array != null) return (char) (array[offset + index] & 0xFF);
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    /**
+     * @return A view over the bytes between start and end, without copying them
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end < start || end > length) {
+            throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + ") of an input of length "
+                    + length);
+        }
+        return new Utf8Input(array, buffer, offset + start, end - start);
+    }
+
+    /**
+     * @return The input decoded as UTF-8
+     */
+    @Override
+    public String toString() {
+        if (array != null) {
+            return new String(array, offset, length, StandardCharsets.UTF_8);
+        }
+
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -16,6 +16,56 @@
 package scanning;
 
 public class Utils {
+    // Classes of chars. The class of the first char of a token decides which scanner handles it
+    public static final int OTHER = 0;
+    public static final int DIGIT = 1;
+    // Lowercase letters and underscore
+    public static final int IDENTIFIER_START = 2;
+    public static final int QUOTE = 3;
+    public static final int OPERATOR = 4;
+    public static final int GROUPING_SIGN = 5;
+    public static final int WHITESPACE = 6;
+    public static final int NEW_LINE = 7;
+
+    // Class of each ASCII char. Every other char is OTHER
+    private static final byte[] charClasses = new byte[128];
+    // Whether each ASCII char can appear after the first char of an identifier
+    private static final boolean[] identifierChars = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            charClasses[c] = IDENTIFIER_START;
+            identifierChars[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            identifierChars[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            charClasses[c] = DIGIT;
+            identifierChars[c] = true;
+        }
+        charClasses['_'] = IDENTIFIER_START;
+        identifierChars['_'] = true;
+
+        for (char c : "+-=*!\\/|@#$~%&?<>^.:".toCharArray()) {
+            charClasses[c] = OPERATOR;
+        }
+        for (char c : "(){}[]".toCharArray()) {
+            charClasses[c] = GROUPING_SIGN;
+        }
+        charClasses['"'] = QUOTE;
+        charClasses[' '] = WHITESPACE;
+        charClasses['\n'] = NEW_LINE;
+    }
+
+    /**
+     * @param c Char to classify
+     * @return The class of c, one of the constants of this class
+     */
+    public static int charClass(char c) {
+        return c < 128 ? charClasses[c] : OTHER;
+    }
+
     public static boolean isDigit(char c) {
         return '0' <= c && c <= '9';
     }
@@ -32,13 +82,36 @@ public class Utils {
         return isDigit(c) || 'a' <= c && c <= 'f' || 'A' <= c && c <= 'F';
     }
 
+    /**
+     * @param c Char to test
+     * @return Whether c is a letter, number or underscore
+     */
+    public static boolean isIdentifierChar(char c) {
+        return c < 128 && identifierChars[c];
+    }
+
+    /**
+     * Compares a region of input with s, without creating a String
+     *
+     * @param input The text to compare
+     * @param start The position of input where the region starts
+     * @param s     The expected chars
+     * @return Whether input contains the chars of s at start
+     */
+    public static boolean regionEquals(CharSequence input, int start, String s) {
+        int length = s.length();
+        if (start < 0 || start + length > input.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (input.charAt(start + i) != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
     public static boolean isOperatorChar(char c) {
-        return (c == '+' || c == '-' || c == '=' || c == '*' || c == '!' || c == '\\' || c == '/' || c == '|'
-                || c == '@' || c == '#' || c == '$' || c == '~' || c == '%' || c == '&' || c == '?' || c == '<'
-                || c == '>' || c == '^' || c == '.' || c == ':');
+        return c < 128 && charClasses[c] == OPERATOR;
     }
 
     public static boolean isGroupingSign(char c) {
-        return (c == '(' || c == ')' || c == '{' || c == '}' || c == '[' || c == ']');
+        return c < 128 && charClasses[c] == GROUPING_SIGN;
     }
 }
@@ -17,38 +17,56 @@ package scanning.scanner;
 
 import error.ScannerError;
 import scanning.MainScanner;
+import scanning.ScanBackend;
 import scanning.Token;
 import scanning.TokenType;
 
 public abstract class AbstractScanner {
-    protected final String input;
+    protected final CharSequence input;
     protected int position;
-    protected final int startPosition;
-    protected final int lineNumber;
-    private final int inputSize;
-    /**
-     * Stores the value of the token currently being scanned
-     */
-    private final StringBuilder currentValue = new StringBuilder();
-    private MainScanner mainScanner;
+    protected int startPosition;
+    protected int lineNumber;
+    // Amount of chars that could be read when the scanner was reset
+    private int inputSize;
+    private final MainScanner mainScanner;
+    // Finds the end of runs of chars
+    protected final ScanBackend backend;
 
     protected AbstractScanner(MainScanner mainScanner) {
         // If mainScanner didn't throw, these values are valid
         input = mainScanner.getInput();
+        this.mainScanner = mainScanner;
+        backend = mainScanner.getBackend();
+        reset();
+    }
+
+    /**
+     * Prepares the scanner to scan a token at the current position of the MainScanner.
+     * Scanners are reused, so this is called before every token.
+     */
+    public void reset() {
+        inputSize = mainScanner.getInputSize();
         position = mainScanner.getPosition();
         lineNumber = mainScanner.getLineNumber();
-
         startPosition = position;
-        inputSize = input.length();
-        this.mainScanner = mainScanner;
     }
 
     public int getPosition() {
         return position;
     }
 
-    protected String getCurrentValue() {
-        return currentValue.toString();
+    /**
+     * @return The chars consumed since the scanner started, without copying them
+     */
+    protected CharSequence getCurrentText() {
+        return slice(startPosition, position);
+    }
+
+    /**
+     * @return The chars between the absolute positions start and end, as returned by MainScanner.slice()
+     */
+    protected CharSequence slice(int start, int end) {
+        return mainScanner.slice(start, end);
     }
 
     protected void addError(ScannerError error) {
@@ -56,11 +74,30 @@ public abstract class AbstractScanner {
     }
 
     /**
-     * Attempts to scan a token.
+     * Scans a token without creating an object for it.
+     * The token spans from the position where the scanner was reset to getPosition().
      *
-     * @return A token, if found, or null
+     * @return The type of the token
      */
-    public abstract Token scan();
+    public abstract TokenType scanToken();
+
+    /**
+     * Scans a token and creates an object for it.
+     *
+     * @return A token
+     */
+    public Token scan() {
+        TokenType type = scanToken();
+        return create(type, getText(type));
+    }
+
+    /**
+     * @param type The type of the last token scanned
+     * @return The text of the last token scanned
+     */
+    public CharSequence getText(TokenType type) {
+        return getCurrentText();
+    }
 
     /**
      * Consumes and returns the next character
@@ -73,6 +110,29 @@ public abstract class AbstractScanner {
         return c;
     }
 
+    /**
+     * @param position An absolute position of the input
+     * @return The character at position, or \0 if it's outside the input
+     */
+    protected char charAt(int position) {
+        if (position >= inputSize && !mainScanner.hasCharAt(position)) return '\0';
+        return input.charAt(position);
+    }
+
+    /**
+     * Used to read many chars without checking the bounds of each one.
+     *
+     * @param position An absolute position of the input
+     * @return The position after the last char that can be read without more checks,
+     * which is at most position if the input ends there
+     */
+    protected int readableEnd(int position) {
+        if (position >= inputSize && mainScanner.hasCharAt(position)) {
+            inputSize = mainScanner.getInputSize();
+        }
+        return inputSize;
+    }
+
     /**
      * @return The next character without consuming it, or \0 if EOF is reached
      */
@@ -101,47 +161,43 @@ public abstract class AbstractScanner {
      * @return Whether there is input remaining
      */
     protected boolean hasNext() {
-        return position < inputSize;
+        return position < inputSize || mainScanner.hasCharAt(position);
     }
 
     /**
      * @return Whether there is at least 2 chars remaining
      */
     protected boolean hasNext2() {
-        return position + 1 < inputSize;
+        return position + 1 < inputSize || mainScanner.hasCharAt(position + 1);
     }
 
     /**
      * @return Whether there is at least 3 chars remaining
      */
     protected boolean hasNext3() {
-        return position + 2 < inputSize;
-    }
-
-    protected void append(char c) {
-        currentValue.append(c);
+        return position + 2 < inputSize || mainScanner.hasCharAt(position + 2);
     }
 
     /**
      * @param type The type of token
-     * @param value The string value
+     * @param text The text of the token
      * @return A token with these values
      */
-    private Token create(TokenType type, String value) {
+    protected Token create(TokenType type, CharSequence text) {
         return new Token(
                 type,
-                value,
+                text,
                 lineNumber,
                 startPosition
         );
     }
 
     /**
-     * Creates a token with the value currently stored
+     * Creates a token whose text is every char consumed since the scanner started
      * @param type The type of token
      * @return A token
      */
     protected Token create(TokenType type) {
-        return create(type, currentValue.toString());
+        return create(type, getCurrentText());
     }
 }
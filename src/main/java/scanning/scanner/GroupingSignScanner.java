@@ -16,7 +16,6 @@
 package scanning.scanner;
 
 import scanning.MainScanner;
-import scanning.Token;
 import scanning.TokenType;
 
 public class GroupingSignScanner extends AbstractScanner {
@@ -25,52 +24,67 @@ public class GroupingSignScanner extends AbstractScanner {
     }
 
     /**
-     * Assumes the next character is an opening grouping sign
+     * Assumes the next character is a grouping sign.
+     * An opening parenthesis followed by a closing one, with only whitespace between them, is scanned as Unit.
      *
-     * @return
+     * @return The type of grouping sign
      */
     @Override
-    public Token scan() {
-        switch (peek1()) {
+    public TokenType scanToken() {
+        switch (next()) {
             case '(': {
-                // Consume open parenthesis
-                next();
-                // Consume possible whitespace
-                while (peek1() == ' ') next();
+                // Look for a closing parenthesis after possible whitespace
+                int afterWhitespace = position;
+                while (charAt(afterWhitespace) == ' ') afterWhitespace++;
 
-                if (peek1() == ')') {
-                    // consume closing parenthesis, create unit token
-                    append('(');
-                    append(next());
-                    return create(TokenType.Unit);
+                if (charAt(afterWhitespace) == ')') {
+                    // consume whitespace and closing parenthesis
+                    position = afterWhitespace + 1;
+                    return TokenType.Unit;
                 } else {
-                    append('(');
-                    return create(TokenType.LeftParen);
+                    return TokenType.LeftParen;
                 }
             }
             case ')': {
-                append(next());
-                return create(TokenType.RightParen);
+                return TokenType.RightParen;
             }
             case '[': {
-                append(next());
-                return create(TokenType.LeftBracket);
+                return TokenType.LeftBracket;
             }
             case ']': {
-                append(next());
-                return create(TokenType.RightBracket);
+                return TokenType.RightBracket;
             }
             case '{': {
-                append(next());
-                return create(TokenType.LeftBrace);
+                return TokenType.LeftBrace;
             }
             case '}': {
-                append(next());
-                return create(TokenType.RightBrace);
+                return TokenType.RightBrace;
             }
         }
         // Should never happen
         throw new RuntimeException("Illegal Scanner state: tried to scan a grouping sign " +
                 "but none was found");
     }
+
+    @Override
+    public CharSequence getText(TokenType type) {
+        return textOf(type);
+    }
+
+    /**
+     * @param type A grouping sign or Unit
+     * @return The text of the grouping sign
+     */
+    public static String textOf(TokenType type) {
+        switch (type) {
+            case Unit: return "()";
+            case LeftParen: return "(";
+            case RightParen: return ")";
+            case LeftBracket: return "[";
+            case RightBracket: return "]";
+            case LeftBrace: return "{";
+            case RightBrace: return "}";
+        }
+        throw new IllegalArgumentException("Not a grouping sign: " + type);
+    }
 }
@@ -16,49 +16,85 @@
 package scanning.scanner;
 
 import scanning.MainScanner;
-import scanning.Token;
+import scanning.SymbolTable;
 import scanning.TokenType;
-import scanning.Utils;
-
-import java.util.HashMap;
 
 public class IdentifierScanner extends AbstractScanner {
+    // Where the names of identifiers are interned
+    private final SymbolTable symbolTable;
+    // Id of the last identifier scanned, or -1 if it was a keyword
+    private int symbol = -1;
+
     public IdentifierScanner(MainScanner mainScanner) {
         super(mainScanner);
+        symbolTable = mainScanner.getSymbolTable();
     }
 
-    public static final HashMap<String, TokenType> keywords = new HashMap<>();
-
-    static {
-        keywords.put("var", TokenType.VAR);
-        keywords.put("val", TokenType.VAL);
+    /**
+     * Recognizes keywords by their length and chars, without hashing them.
+     *
+     * @param input  Where the identifier is
+     * @param start  Absolute position of the first char of the identifier
+     * @param length Amount of chars of the identifier
+     * @return The type of the keyword, or null if the identifier is not a keyword
+     */
+    public static TokenType keywordType(CharSequence input, int start, int length) {
+        switch (length) {
+            case 3: {
+                if (input.charAt(start) != 'v' || input.charAt(start + 1) != 'a') return null;
+                switch (input.charAt(start + 2)) {
+                    case 'r': return TokenType.VAR;
+                    case 'l': return TokenType.VAL;
+                    default: return null;
+                }
+            }
+            default: {
+                return null;
+            }
+        }
     }
 
     /**
-     * @param c Char to test
-     * @return Whether c is a letter, number or underscore
+     * @return The id in the SymbolTable of the last identifier scanned, or -1 if it was a keyword
      */
-    private boolean isIdentifierChar(char c) {
-        return Utils.isLowercase(c) || Utils.isUppercase(c) || (c == '_') || Utils.isDigit(c);
+    public int getSymbol() {
+        return symbol;
     }
 
     /**
-     * Scans an identifier
+     * Scans an identifier, and interns its name if it's not a keyword.
      * Assumes the next char is a lowercase char or an underscore.
      *
-     * @return An Identifier token
+     * @return Identifier, or the type of the keyword
      */
     @Override
-    public Token scan() {
-        append(next());
+    public TokenType scanToken() {
+        next();
+        position = skipIdentifierChars(position);
+
+        TokenType keyword = keywordType(input, startPosition, position - startPosition);
+        if (keyword != null) {
+            symbol = -1;
+            return keyword;
+        }
 
-        while (isIdentifierChar(peek1())) append(next());
+        // Keywords are recognized without hashing, so only identifiers are hashed
+        int hash = SymbolTable.hash(input, startPosition, position);
+        symbol = symbolTable.intern(input, startPosition, position, hash);
+        return TokenType.Identifier;
+    }
 
-        String currentValue = getCurrentValue();
-        // Try to get a keyword
-        TokenType type = keywords.get(currentValue);
-        if (type == null) type = TokenType.Identifier;
+    /**
+     * @return The position of the first char at or after from that can't be part of an identifier
+     */
+    private int skipIdentifierChars(int from) {
+        int p = from;
+        while (true) {
+            int end = readableEnd(p);
+            if (p >= end) return p;
 
-        return create(type);
+            p = backend.skipIdentifierChars(input, p, end);
+            if (p < end) return p;
+        }
     }
 }
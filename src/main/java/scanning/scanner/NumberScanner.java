@@ -19,8 +19,9 @@ import scanning.MainScanner;
 import scanning.Token;
 import scanning.TokenType;
 
-import static scanning.Utils.isDigit;
-import static scanning.Utils.isHexDigit;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
 
 /**
  * Scans a double or integer. The specification is found in
@@ -28,135 +29,263 @@ import static scanning.Utils.isHexDigit;
  *
  * This class assumes that the first character conforms to the spec,
  * so it doesn't handle whitespace or indentation.
+ *
+ * Numbers are recognized with a DFA. The scanner advances while there is a transition,
+ * and then returns to the last position where a complete number was found, so inputs
+ * like `2.x`, `0xg` or `1e+` only consume the valid number at their start.
+ *
+ * The value of the number is computed as its digits are consumed. Integers are accumulated in a long,
+ * and doubles are computed exactly from their digits and exponent when both are small enough,
+ * otherwise they are parsed from the text. Values that don't fit are flagged as overflows.
  */
 public class NumberScanner extends AbstractScanner {
     public NumberScanner(MainScanner mainScanner) {
         super(mainScanner);
     }
 
-    private Token scanFloatingPoint() {
-        // Precondition: currentValue contains an integer
-        //               next() will return '.'
+    // Value of the last number scanned: the long for an Integer, or the bits of the double for a Floating
+    private long valueBits;
+    // Whether the last number scanned doesn't fit in a long or a double
+    private boolean overflow;
 
-        // Check the char after '.'
-        if (!isDigit(peek2())) {
-            // Something like  '2.x' , return only 2 without consuming the dot and x
-            return create(TokenType.Integer);
-        }
+    // A decimal digit can be added to a long lower than this without overflowing
+    private static final long MAX_BEFORE_DIGIT = Long.MAX_VALUE / 10;
+    // Doubles can represent every integer up to this one
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    // Powers of 10 that are exact doubles
+    private static final double[] powersOf10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
 
-        // Consume the dot '.'
-        append(next());
+    // States of the DFA
+    private static final int ZERO = 0;
+    private static final int DECIMAL = 1;
+    // After the dot, before any digit
+    private static final int DOT = 2;
+    private static final int FRACTION = 3;
+    // After 'e', before + or -
+    private static final int EXPONENT = 4;
+    // After + or -, before any digit
+    private static final int EXPONENT_SIGN = 5;
+    private static final int EXPONENT_DIGITS = 6;
+    // After 0x, before any hex digit
+    private static final int HEX_PREFIX = 7;
+    private static final int HEX_DIGITS = 8;
+    private static final int STATES = 9;
+    private static final int DEAD = -1;
 
-        char c;
-        while ((c = peek1()) != '\0') {
-            if (isDigit(c)) {
-                append(next());
-            }
-            else if (c == 'e') {
-                return scanScientificNotation(TokenType.Floating);
-            }
-            else {
-                break;
-            }
-        }
+    // Classes of chars used by the DFA
+    private static final int C_DIGIT = 0;
+    private static final int C_E = 1;
+    // Hex letters other than 'e'
+    private static final int C_HEX_LETTER = 2;
+    private static final int C_X = 3;
+    private static final int C_DOT = 4;
+    private static final int C_SIGN = 5;
+    private static final int C_OTHER = 6;
+    private static final int CLASSES = 7;
+
+    // Class of each ASCII char. Every other char is C_OTHER
+    private static final byte[] inputClasses = new byte[128];
+    // Next state for each state and class, at index state * CLASSES + class
+    private static final byte[] transitions = new byte[STATES * CLASSES];
+    // Type of number of each state, or null if a number can't end in that state
+    private static final TokenType[] acceptedTypes = new TokenType[STATES];
+
+    static {
+        Arrays.fill(inputClasses, (byte) C_OTHER);
+        for (char c = '0'; c <= '9'; c++) inputClasses[c] = C_DIGIT;
+        for (char c = 'a'; c <= 'f'; c++) inputClasses[c] = C_HEX_LETTER;
+        for (char c = 'A'; c <= 'F'; c++) inputClasses[c] = C_HEX_LETTER;
+        inputClasses['e'] = C_E;
+        inputClasses['x'] = C_X;
+        inputClasses['X'] = C_X;
+        inputClasses['.'] = C_DOT;
+        inputClasses['+'] = C_SIGN;
+        inputClasses['-'] = C_SIGN;
+
+        Arrays.fill(transitions, (byte) DEAD);
+        transition(ZERO, C_DIGIT, DECIMAL);
+        transition(ZERO, C_DOT, DOT);
+        transition(ZERO, C_E, EXPONENT);
+        transition(ZERO, C_X, HEX_PREFIX);
+
+        transition(DECIMAL, C_DIGIT, DECIMAL);
+        transition(DECIMAL, C_DOT, DOT);
+        transition(DECIMAL, C_E, EXPONENT);
+
+        transition(DOT, C_DIGIT, FRACTION);
 
-        return create(TokenType.Floating);
+        transition(FRACTION, C_DIGIT, FRACTION);
+        transition(FRACTION, C_E, EXPONENT);
+
+        transition(EXPONENT, C_SIGN, EXPONENT_SIGN);
+        transition(EXPONENT_SIGN, C_DIGIT, EXPONENT_DIGITS);
+        transition(EXPONENT_DIGITS, C_DIGIT, EXPONENT_DIGITS);
+
+        transition(HEX_PREFIX, C_DIGIT, HEX_DIGITS);
+        transition(HEX_PREFIX, C_E, HEX_DIGITS);
+        transition(HEX_PREFIX, C_HEX_LETTER, HEX_DIGITS);
+        transition(HEX_DIGITS, C_DIGIT, HEX_DIGITS);
+        transition(HEX_DIGITS, C_E, HEX_DIGITS);
+        transition(HEX_DIGITS, C_HEX_LETTER, HEX_DIGITS);
+
+        acceptedTypes[ZERO] = TokenType.Integer;
+        acceptedTypes[DECIMAL] = TokenType.Integer;
+        acceptedTypes[HEX_DIGITS] = TokenType.Integer;
+        acceptedTypes[FRACTION] = TokenType.Floating;
+        acceptedTypes[EXPONENT_DIGITS] = TokenType.Floating;
+    }
+
+    private static void transition(int from, int inputClass, int to) {
+        transitions[from * CLASSES + inputClass] = (byte) to;
+    }
+
+    private static int inputClass(char c) {
+        return c < 128 ? inputClasses[c] : C_OTHER;
     }
 
     /**
-     * Tries to scan scientific notation. If it fails, it returns the current value.
-     * @param context The type of the current value: Integer or Float
-     * @return A token
+     * Scans a number (double or integer).
+     * Assumes the next char is a decimal digit.
+     * @return The type of number
      */
-    private Token scanScientificNotation(TokenType context) {
-        // Precondition: currentValue contains an integer or floating point
-        //               next() returns 'e'
-
-        // Should contain + or -
-        char p2 = peek2();
-        if (p2 != '+' && p2 != '-') {
-            // TODO: Report an error of scientific notation, instead of generic error?
-            return create(context);
-        }
+    @Override
+    public TokenType scanToken() {
+        // Precondition: next() will return a decimal digit
+        char first = next();
+        int state = first == '0' ? ZERO : DECIMAL;
+        // Last state and position where a complete number was found
+        int acceptedState = state;
+        int acceptedPosition = position;
 
-        // Should contain a digit
-        if (!isDigit(peek3())) {
-            return create(context);
-        }
+        // Digits of the integer and fraction parts, without the dot
+        long mantissa = first - '0';
+        boolean mantissaOverflow = false;
+        int fractionDigits = 0;
+        int exponent = 0;
+        boolean negativeExponent = false;
+        long hexValue = 0;
+        boolean hexOverflow = false;
 
-        // Consume the 2 peeked chars: 'e' and +/-
-        append(next());
-        append(next());
+        while (true) {
+            char c = peek1();
+            int nextState = transitions[state * CLASSES + inputClass(c)];
+            if (nextState == DEAD) break;
 
-        while (isDigit(peek1())) append(next());
+            next();
+            state = nextState;
 
-        return create(TokenType.Floating);
-    }
+            // Only digits change the value, and they always lead to a state where a number is complete,
+            // so the chars given back below never changed it
+            switch (state) {
+                case FRACTION:
+                case DECIMAL: {
+                    if (state == FRACTION) fractionDigits++;
+                    int digit = c - '0';
+                    if (mantissa < MAX_BEFORE_DIGIT || (mantissa == MAX_BEFORE_DIGIT && digit <= 7)) {
+                        mantissa = mantissa * 10 + digit;
+                    } else {
+                        mantissaOverflow = true;
+                    }
+                    break;
+                }
+                case EXPONENT_SIGN: {
+                    negativeExponent = c == '-';
+                    break;
+                }
+                case EXPONENT_DIGITS: {
+                    // Larger exponents are out of the range of doubles anyway
+                    if (exponent < 100_000) exponent = exponent * 10 + (c - '0');
+                    break;
+                }
+                case HEX_DIGITS: {
+                    if ((hexValue >>> 59) != 0) hexOverflow = true;
+                    else hexValue = hexValue * 16 + Character.digit(c, 16);
+                    break;
+                }
+            }
 
-    private Token scanDecimal() {
-        char c;
-        while ((c = peek1()) != '\0') {
-            if (isDigit(c)) {
-                append(next());
+            if (acceptedTypes[state] != null) {
+                acceptedState = state;
+                acceptedPosition = position;
             }
-            else if (c == '.') {
-                return scanFloatingPoint();
+        }
+
+        // Give back the chars consumed after the last complete number
+        position = acceptedPosition;
+
+        switch (acceptedState) {
+            case HEX_DIGITS: {
+                valueBits = hexValue;
+                overflow = hexOverflow;
+                break;
             }
-            else if (c == 'e') {
-                return scanScientificNotation(TokenType.Integer);
+            case FRACTION:
+            case EXPONENT_DIGITS: {
+                int exponent10 = (acceptedState == EXPONENT_DIGITS ? (negativeExponent ? -exponent : exponent) : 0)
+                        - fractionDigits;
+                double value = toDouble(mantissa, mantissaOverflow, exponent10);
+                valueBits = Double.doubleToRawLongBits(value);
+                overflow = Double.isInfinite(value);
+                break;
+            }
+            default: {
+                valueBits = mantissa;
+                overflow = mantissaOverflow;
             }
-            else break;
         }
-        return create(TokenType.Integer);
+
+        return acceptedTypes[acceptedState];
     }
 
-    // Assumes the next call to next() will return the first character
-    private Token scanHexadecimalInteger() {
-        // Precondition: currentValue is '0'
-        //               peek() returns 'x'
+    /**
+     * Computes mantissa * 10^exponent10. If both values are exact doubles, the result of a single
+     * multiplication or division is correctly rounded. Otherwise the text is parsed.
+     */
+    private double toDouble(long mantissa, boolean mantissaOverflow, int exponent10) {
+        if (!mantissaOverflow && mantissa <= MAX_EXACT_DOUBLE && exponent10 >= -22 && exponent10 <= 22) {
+            if (exponent10 >= 0) return mantissa * powersOf10[exponent10];
+            return mantissa / powersOf10[-exponent10];
+        }
+        return Double.parseDouble(getCurrentText().toString());
+    }
 
-        // Test the char after 'x'
-        if (isHexDigit(peek2())) {
-            // If the hex is valid, consume the 'x'
-            append(next());
+    /**
+     * @return The value of the last number scanned: the long for an Integer, or the bits of the double
+     * for a Floating, as returned by Double.doubleToRawLongBits
+     */
+    public long getValueBits() {
+        return valueBits;
+    }
 
-            while (isHexDigit(peek1())) append(next());
-        } else {
-            // 0x was detected, but then no other hexadecimal value. Only return 0.
-            return create(TokenType.Integer);
-        }
+    /**
+     * @return Whether the value of the last number scanned doesn't fit in a long, for an Integer,
+     * or is infinite, for a Floating
+     */
+    public boolean isOverflow() {
+        return overflow;
+    }
 
-        return create(TokenType.Integer);
+    @Override
+    protected Token create(TokenType type, CharSequence text) {
+        return new Token(type, text, lineNumber, startPosition, valueBits, overflow);
     }
 
     /**
-     * Scans a number (double or integer).
-     * Assumes the next char is a decimal digit.
-     * @return A number token
+     * Parses a number with arbitrary precision. Used for values that overflow.
+     *
+     * @param type An Integer or Floating type
+     * @param text The text of the number
+     * @return A BigInteger for an Integer, or a BigDecimal for a Floating
      */
-    public Token scan() {
-        // Precondition: next() will return a decimal digit
-        char c = next();
-        append(c);
-
-        if (c == '0') {
-            c = peek1();
-            // HEX
-            if (c == 'x' || c == 'X') {
-                return scanHexadecimalInteger();
-            } else if (c == '.') {
-                return scanFloatingPoint();
-            } else if (isDigit(c)) {
-                return scanDecimal();
-            } else if (c == 'e') {
-                return scanScientificNotation(TokenType.Integer);
-            } else {
-                // It's not decimal nor hex, return only 0
-                return create(TokenType.Integer);
-            }
+    public static Number parseExact(TokenType type, String text) {
+        if (type == TokenType.Floating) return new BigDecimal(text);
+        if (text.length() > 2 && (text.charAt(1) == 'x' || text.charAt(1) == 'X')) {
+            return new BigInteger(text.substring(2), 16);
         }
-
-        return scanDecimal();
+        return new BigInteger(text);
     }
 
 }
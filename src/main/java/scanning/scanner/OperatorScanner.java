@@ -16,6 +16,7 @@
 package scanning.scanner;
 
 import scanning.MainScanner;
+import scanning.OperatorKind;
 import scanning.Token;
 import scanning.TokenType;
 
@@ -23,14 +24,50 @@ import static scanning.Utils.isOperatorChar;
 
 public class OperatorScanner extends AbstractScanner {
 
+    // Kind of the last operator scanned
+    private OperatorKind kind = OperatorKind.Custom;
+
     public OperatorScanner(MainScanner mainScanner) {
         super(mainScanner);
     }
 
+    /**
+     * Consumes operator chars until a char that is not one, or the start of a comment,
+     * and finds which operator they spell
+     *
+     * @return Operator
+     */
     @Override
-    public Token scan() {
-        while (isOperatorChar(peek1())) append(next());
+    public TokenType scanToken() {
+        int key = 0;
+        char c;
+        while (isOperatorChar(c = peek1()) && !(c == '/' && peek2() == '/')) {
+            key = OperatorKind.extendKey(key, c);
+            next();
+        }
+        kind = OperatorKind.ofKey(key);
+
+        return TokenType.Operator;
+    }
+
+    /**
+     * @return The kind of the last operator scanned
+     */
+    public OperatorKind getKind() {
+        return kind;
+    }
 
-        return create(TokenType.Operator);
+    /**
+     * @return The spelling of the operator, or a slice of the input if it's Custom
+     */
+    @Override
+    public CharSequence getText(TokenType type) {
+        String spelling = kind.getSpelling();
+        return spelling != null ? spelling : getCurrentText();
+    }
+
+    @Override
+    protected Token create(TokenType type, CharSequence text) {
+        return new Token(type, text, lineNumber, startPosition, kind);
     }
 }
@@ -17,11 +17,25 @@ package scanning.scanner;
 
 import error.ScannerError;
 import scanning.MainScanner;
-import scanning.Token;
+import scanning.Utf8Input;
 import scanning.TokenType;
 
 public class StringScanner extends AbstractScanner {
     static final String UNEXPECTED_NEW_LINE_MSG = "Unexpected new line inside a string.";
+    static final String UNEXPECTED_END_OF_INPUT_MSG = "Unexpected end of input inside a string.";
+
+    // Reused to decode the strings that have escape characters
+    private final StringBuilder decoded = new StringBuilder();
+    // Whether the last string scanned had escape characters
+    private boolean hasEscapes = false;
+    // Position of the first char of the contents of the last string
+    private int contentStart = 0;
+    // Position after the last char of the contents of the last string
+    private int contentEnd = 0;
+    // Whether the last string was ended by the end of the input, instead of a quote or new line
+    private boolean endedByInput = false;
+    // Whether the last string was ended by a new line, which was consumed with it
+    private boolean endedByNewLine = false;
 
     public StringScanner(MainScanner mainScanner) {
         super(mainScanner);
@@ -67,42 +81,108 @@ public class StringScanner extends AbstractScanner {
      * Scans a string.
      * Assumes the next char will be a double quote "
      *
-     * @return A String token
+     * The chars without special meaning are skipped in bulk by the ScanBackend.
+     * The value of the string is a slice of the input, unless it has escape characters.
+     * In that case the value is decoded with a reused buffer, copying each run of plain chars at once.
+     *
+     * @return String
      */
     @Override
-    public Token scan() {
+    public TokenType scanToken() {
         // Consume opening quote
         next();
+        contentStart = position;
+        hasEscapes = false;
+        endedByInput = false;
+        endedByNewLine = false;
 
         while (true) {
+            int special = findSpecialChar(position);
+            if (hasEscapes) decoded.append(input, position, special);
+            position = special;
+
+            if (!hasNext()) {
+                contentEnd = position;
+                endedByInput = true;
+                addError(new ScannerError(UNEXPECTED_END_OF_INPUT_MSG, startPosition, position));
+                return TokenType.String;
+            }
+
             char c = peek1();
+            if (c == '"' || c == '\n') {
+                contentEnd = position;
 
-            if (c == '"') {
-                // Consume closing quote
+                if (c == '\n') {
+                    endedByNewLine = true;
+                    addError(new ScannerError(UNEXPECTED_NEW_LINE_MSG, startPosition, position));
+                }
+                // Consume closing quote or new line
                 next();
-                return create(TokenType.String);
-            } else if (c == '\n') {
-                addError(new ScannerError(UNEXPECTED_NEW_LINE_MSG));
-                // Consume new line
+                return TokenType.String;
+            }
+
+            // c is a backslash
+            if (!hasEscapes) {
+                hasEscapes = true;
+                decoded.setLength(0);
+                decoded.append(input, contentStart, position);
+            }
+
+            char result = handleEscapeChar(peek2());
+            if (result != '\0') {
+                // Consume the backslash and escape char, and add the escape character
+                next();
+                next();
+                decoded.append(result);
+            } else {
+                // Consume and ignore the backslash
                 next();
-                return create(TokenType.String);
-            } else if (c == '\\') {
-                char result = handleEscapeChar(peek2());
-                if (result != '\0') {
-                    // Consume the backslash and escape char, and continue
-                    next();
-                    next();
-                    // Add the escape character
-                    append(result);
-                    continue;
-                } else {
-                    // Consume and ignore the backslash
-                    next();
-                    continue;
-                }
             }
+        }
+    }
 
-            append(next());
+    /**
+     * Finds the first quote, new line or backslash at or after from.
+     *
+     * @param from Absolute position where the search starts
+     * @return The position of the char, or the end of the input if there is none
+     */
+    private int findSpecialChar(int from) {
+        int p = from;
+        while (true) {
+            int end = readableEnd(p);
+            if (p >= end) return p;
+
+            p = backend.findStringSpecialChar(input, p, end);
+            if (p < end) return p;
+        }
+    }
+
+    /**
+     * @return Whether the last string was ended by a new line. In that case the new line is part of the token
+     */
+    public boolean isEndedByNewLine() {
+        return endedByNewLine;
+    }
+
+    @Override
+    public CharSequence getText(TokenType type) {
+        if (hasEscapes) return getDecodedValue();
+        return slice(contentStart, contentEnd);
+    }
+
+    /**
+     * Returns the value of the last string scanned if it can't be taken from the chars between its first
+     * and last char: if it had escape characters, or if the input ended before it was closed.
+     *
+     * @return The value of the last string, or null if it's the chars between its first and last char
+     */
+    public String getDecodedValue() {
+        if (!hasEscapes) {
+            return endedByInput ? slice(contentStart, contentEnd).toString() : null;
         }
+        // The chars copied from a Utf8Input are still bytes
+        if (input instanceof Utf8Input) return Utf8Input.decode(decoded);
+        return decoded.toString();
     }
 }
@@ -64,6 +64,28 @@ public abstract class Expr {
         }
     }
 
+    static class Unary extends Expr {
+        final Token operator;
+        final Expr operand;
+
+        Unary(Token operator, Expr operand) {
+            this.operator = operator;
+            this.operand = operand;
+        }
+    }
+
+    static class Binary extends Expr {
+        final Token operator;
+        final Expr left;
+        final Expr right;
+
+        Binary(Token operator, Expr left, Expr right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
     static class FnCall extends Expr {
         final Expr fnExpr;
         final List<Expr> arguments;
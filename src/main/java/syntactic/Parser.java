@@ -18,72 +18,198 @@ package syntactic;
 import error.ErrorList;
 import error.SyntaxError;
 import scanning.MainScanner;
+import scanning.OperatorKind;
+import scanning.PipelinedScanner;
 import scanning.Token;
+import scanning.TokenBuffer;
+import scanning.TokenStream;
 import scanning.TokenType;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * Parses expressions with a Pratt parser: a single loop takes operators while they bind tighter
+ * than the operator on their left, using a table of binding powers indexed by OperatorKind.
+ * A chain of left associative operators is parsed in one loop, without a method per precedence level.
+ *
+ * Binding powers come in pairs: an infix operator binds to its left with its left power,
+ * and parses its right operand with its right power. A left associative operator has a right power
+ * higher than its left one, so the next operator of the same level ends its right operand.
+ * Function application is written by juxtaposition, and binds tighter than every operator but member access.
+ */
 public class Parser {
 
-    private int position = 0;
-    private final ArrayList<Token> tokens;
-    private final int tokenAmount;
+    // Binding power of each infix operator to its left, or -1 if it's not infix
+    private static final int[] infixLeft = new int[OperatorKind.values().length];
+    // Binding power used to parse the right operand of each infix operator
+    private static final int[] infixRight = new int[OperatorKind.values().length];
+    // Binding power used to parse the operand of each prefix operator, or -1 if it's not prefix
+    private static final int[] prefixRight = new int[OperatorKind.values().length];
+
+    // Precedence of function application
+    private static final int APPLICATION = 13;
+
+    // Amount of tokens the parser can peek. Expressions only need the next one, the rest is room
+    // for constructs that are told apart by the tokens after them, or that backtrack with mark()
+    static final int LOOKAHEAD = 4;
+
+    // Tokens that start a primary expression, and so can be an argument
+    private static final TokenSet PRIMARY_START = TokenSet.of(
+            TokenType.Integer,
+            TokenType.Floating,
+            TokenType.String,
+            TokenType.Identifier,
+            TokenType.Unit,
+            TokenType.LeftParen
+    );
+    // Tokens where a new statement can start. After an error, tokens are skipped until one of these
+    private static final TokenSet SYNC_POINTS = TokenSet.of(
+            TokenType.VAL,
+            TokenType.VAR,
+            TokenType.Dedent,
+            TokenType.EOF
+    );
+
+    static {
+        Arrays.fill(infixLeft, -1);
+        Arrays.fill(prefixRight, -1);
+
+        infix(OperatorKind.PipeRight, 1, false);
+        infix(OperatorKind.PipeLeft, 1, true);
+        infix(OperatorKind.Coalesce, 2, true);
+        infix(OperatorKind.Elvis, 2, true);
+        infix(OperatorKind.OrOr, 3, false);
+        infix(OperatorKind.AndAnd, 4, false);
+        infix(OperatorKind.EqualEqual, 5, false);
+        infix(OperatorKind.NotEqual, 5, false);
+        infix(OperatorKind.Less, 6, false);
+        infix(OperatorKind.Greater, 6, false);
+        infix(OperatorKind.LessEqual, 6, false);
+        infix(OperatorKind.GreaterEqual, 6, false);
+        infix(OperatorKind.DotDot, 7, false);
+        infix(OperatorKind.Plus, 8, false);
+        infix(OperatorKind.Minus, 8, false);
+        infix(OperatorKind.PlusPlus, 8, false);
+        infix(OperatorKind.Star, 9, false);
+        infix(OperatorKind.Slash, 9, false);
+        infix(OperatorKind.Percent, 9, false);
+        // Operators defined by the user have the same precedence
+        infix(OperatorKind.Custom, 10, false);
+        infix(OperatorKind.Map, 10, false);
+        infix(OperatorKind.ComposeRight, 10, false);
+        infix(OperatorKind.ComposeLeft, 10, true);
+        infix(OperatorKind.Caret, 11, true);
+        infix(OperatorKind.Dot, 14, false);
+        infix(OperatorKind.SafeDot, 14, false);
+
+        prefix(OperatorKind.Minus, 12);
+        prefix(OperatorKind.Bang, 12);
+        prefix(OperatorKind.Tilde, 12);
+    }
+
+    private static void infix(OperatorKind kind, int precedence, boolean rightAssociative) {
+        infixLeft[kind.ordinal()] = precedence * 2 + (rightAssociative ? 1 : 0);
+        infixRight[kind.ordinal()] = precedence * 2 + (rightAssociative ? 0 : 1);
+    }
+
+    private static void prefix(OperatorKind kind, int precedence) {
+        prefixRight[kind.ordinal()] = precedence * 2;
+    }
+
+    private final TokenStream tokens;
     private final ErrorList errorList;
 
-    public Parser(MainScanner mainScanner, ErrorList errorList) {
-        tokens = mainScanner.tokens();
-        tokenAmount = tokens.size();
+    public Parser(TokenStream tokens, ErrorList errorList) {
+        this.tokens = tokens;
         this.errorList = errorList;
     }
 
+    public Parser(MainScanner mainScanner, ErrorList errorList) {
+        this(new TokenStream(mainScanner, LOOKAHEAD), errorList);
+    }
+
+    public Parser(TokenBuffer tokenBuffer, ErrorList errorList) {
+        this(new TokenStream(tokenBuffer, LOOKAHEAD), errorList);
+    }
+
+    /**
+     * Parses in the calling thread while the input is scanned in another one.
+     * The parser doesn't close the pipeline: create it with try-with-resources, so the scanner thread
+     * stops if parsing ends before the EOF token.
+     */
+    public Parser(PipelinedScanner pipeline, ErrorList errorList) {
+        this(pipeline.tokenStream(LOOKAHEAD), errorList);
+    }
+
     public Parser(MainScanner mainScanner) {
         this(mainScanner, new ErrorList());
     }
 
     /**
-     * @return Token at current position, or null if there are no tokens left
+     * @return Token at current position, or EOF if there are no tokens left
      */
     private Token next() {
-        if (position >= tokenAmount) {
-            return null;
-        } else {
-            Token t = tokens.get(position);
-            position += 1;
-            return t;
-        }
+        return tokens.next();
     }
 
     private Token peek() {
-        return tokens.get(position);
+        return tokens.peek();
     }
 
     private boolean check(TokenType type) {
-        if (position >= tokenAmount) return false;
         return peek().type == type;
     }
 
+    private boolean check(TokenSet types) {
+        return types.contains(peek().type);
+    }
+
+    /**
+     * Checks if the current token is of type. If it is,
+     * the token is consumed and true is returned.
+     * Otherwise, false is returned
+     *
+     * @param type Type to check
+     * @return Whether the type was found
+     */
+    private boolean match(TokenType type) {
+        if (check(type)) {
+            next();
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Checks if the current token is any of types. If it is,
      * the token is consumed and true is returned.
      * Otherwise, false is returned
      *
-     * @param types Array of types to check
+     * @param types Set of types to check
      * @return Whether any of the types was found
      */
-    private boolean match(TokenType... types) {
-        for (TokenType type : types) {
-            if (check(type)) {
-                next();
-                return true;
-            }
+    private boolean match(TokenSet types) {
+        if (check(types)) {
+            next();
+            return true;
         }
-
         return false;
     }
 
-    private boolean expect(TokenType type, Token t) {
+    private boolean expect(TokenSet types, Token t) {
         if (t == null) return false;
-        return t.type == type;
+        return types.contains(t.type);
+    }
+
+    /**
+     * Skips tokens until one where parsing can resume after an error
+     */
+    private void synchronize() {
+        while (!check(SYNC_POINTS)) {
+            next();
+        }
     }
 
     /**
@@ -91,33 +217,101 @@ public class Parser {
      */
     public Expr expression() {
         Token nextToken = peek();
-        if (nextToken == null) {
+        if (nextToken.type == TokenType.EOF) {
             return null;
         }
 
-        return primary();
+        Expr expr = expression(0);
+        if (expr == null) synchronize();
+        return expr;
     }
 
-    private Expr primary() {
-        if (check(TokenType.Integer)) return new Expr.Integer(next());
-        if (check(TokenType.Floating)) return new Expr.Floating(next());
-        if (check(TokenType.String)) return new Expr.String(next());
-        if (check(TokenType.Identifier)) return new Expr.Identifier(next());
-        if (check(TokenType.Unit)) return new Expr.Unit(next());
-
-        if (check(TokenType.LeftParen)) {
-            // Consume left paren
-            next();
-            Expr next = expression();
-            if (check(TokenType.RightParen)) {
-                return next;
+    /**
+     * Parses an expression whose operators bind to their left with at least minBindingPower
+     *
+     * @return The expression, or null if there was an error
+     */
+    private Expr expression(int minBindingPower) {
+        Expr left = prefix();
+        if (left == null) return null;
+
+        while (true) {
+            Token t = peek();
+
+            if (t.type == TokenType.Operator) {
+                int kind = t.operator.ordinal();
+                if (infixLeft[kind] < minBindingPower) break;
+
+                next();
+                Expr right = expression(infixRight[kind]);
+                if (right == null) {
+                    errorList.addError(new SyntaxError("Expected an expression after " + t.getValue()));
+                    return null;
+                }
+                left = new Expr.Binary(t, left, right);
+            } else if (PRIMARY_START.contains(t.type) && APPLICATION * 2 >= minBindingPower) {
+                // Every argument, up to the next operator that binds less than an application
+                List<Expr> arguments = new ArrayList<>();
+                while (check(PRIMARY_START)) {
+                    Expr argument = expression(APPLICATION * 2 + 1);
+                    if (argument == null) return null;
+                    arguments.add(argument);
+                }
+                left = new Expr.FnCall(left, arguments);
             } else {
-                errorList.addError(new SyntaxError("Missing closing paren"));
-                return null;
+                break;
             }
         }
 
-        // TODO: Error handling?
-        return null;
+        return left;
+    }
+
+    /**
+     * @return A primary expression, or a prefix operator applied to an expression
+     */
+    private Expr prefix() {
+        Token t = peek();
+        if (t.type != TokenType.Operator) return primary();
+
+        int bindingPower = prefixRight[t.operator.ordinal()];
+        if (bindingPower < 0) {
+            errorList.addError(new SyntaxError("Unexpected operator " + t.getValue()));
+            return null;
+        }
+
+        next();
+        Expr operand = expression(bindingPower);
+        if (operand == null) {
+            errorList.addError(new SyntaxError("Expected an expression after " + t.getValue()));
+            return null;
+        }
+        return new Expr.Unary(t, operand);
+    }
+
+    private Expr primary() {
+        // The next token is read once, and dispatched on its type
+        switch (peek().type) {
+            case Integer: return new Expr.Integer(next());
+            case Floating: return new Expr.Floating(next());
+            case String: return new Expr.String(next());
+            case Identifier: return new Expr.Identifier(next());
+            case Unit: return new Expr.Unit(next());
+            case LeftParen: {
+                // Consume left paren
+                next();
+                Expr next = expression(0);
+                if (next == null) return null;
+                if (match(TokenType.RightParen)) {
+                    return next;
+                } else {
+                    errorList.addError(new SyntaxError("Missing closing paren"));
+                    return null;
+                }
+            }
+            default: {
+                // TODO: Error handling?
+                return null;
+            }
+        }
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package syntactic;
+
+import scanning.TokenType;
+
+/**
+ * An immutable set of token types, stored as a bitmap over their ordinals.
+ * Checking whether a type is in the set is a shift and a mask, without allocating anything,
+ * so sets used by the parser are created once and kept in constants.
+ */
+public final class TokenSet {
+
+    static {
+        if (TokenType.values().length > Long.SIZE) {
+            throw new IllegalStateException("TokenSet can't hold more than " + Long.SIZE + " token types");
+        }
+    }
+
+    public static final TokenSet EMPTY = new TokenSet(0);
+
+    private final long bits;
+
+    private TokenSet(long bits) {
+        this.bits = bits;
+    }
+
+    public static TokenSet of(TokenType... types) {
+        long bits = 0;
+        for (TokenType type : types) {
+            bits |= 1L << type.ordinal();
+        }
+        return new TokenSet(bits);
+    }
+
+    public boolean contains(TokenType type) {
+        return (bits & (1L << type.ordinal())) != 0;
+    }
+
+    /**
+     * @return A set with the types of this set and of other
+     */
+    public TokenSet union(TokenSet other) {
+        return new TokenSet(bits | other.bits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TokenSet && ((TokenSet) o).bits == bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bits);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (TokenType type : TokenType.values()) {
+            if (!contains(type)) continue;
+            if (builder.length() > 1) builder.append(", ");
+            builder.append(type);
+        }
+        return builder.append(']').toString();
+    }
+}
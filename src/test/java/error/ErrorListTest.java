@@ -18,7 +18,7 @@ package error;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class ErrorListTest {
     @Test
@@ -28,4 +28,15 @@ public class ErrorListTest {
         errl.addError(new ScannerError("Reason"));
         assertEquals("Reason", errl.getErrors().get(0).reason);
     }
+
+    @Test
+    @DisplayName("should be full after the maximum amount of errors")
+    void t2() {
+        var errl = new ErrorList(2);
+        errl.addError(new ScannerError("1", 0, 1));
+        assertFalse(errl.isFull());
+        errl.addError(new ScannerError("2"));
+        assertTrue(errl.isFull());
+        assertThrows(IllegalArgumentException.class, () -> new ErrorList(0));
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import error.ErrorList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CorpusGeneratorTest {
+
+    @Test
+    @DisplayName("should generate the same code for the same seed")
+    void t1() throws IOException {
+        var code = new CorpusGenerator(42).generate(50_000);
+        assertEquals(50_000, code.length());
+        assertEquals(code, new CorpusGenerator(42).generate(50_000));
+        assertNotEquals(code, new CorpusGenerator(43).generate(50_000));
+
+        try (var reader = new BufferedReader(new CorpusGenerator(42).reader(50_000))) {
+            assertEquals(code, reader.lines().collect(Collectors.joining("\n", "", "\n")).substring(0, 50_000));
+        }
+    }
+
+    @Test
+    @DisplayName("should generate code without errors if the error density is 0")
+    void t2() {
+        var code = new CorpusGenerator(7).maxIndentation(6).generate(200_000);
+        var errors = new ErrorList();
+        var tokens = new MainScanner(code, errors).tokenBuffer();
+
+        assertEquals(0, errors.getErrors().size());
+        int depth = 0;
+        int maxDepth = 0;
+        var seen = new boolean[TokenType.values().length];
+        for (int i = 0; i < tokens.size(); i++) {
+            seen[tokens.type(i).ordinal()] = true;
+            if (tokens.type(i) == TokenType.Indent) maxDepth = Math.max(maxDepth, ++depth);
+            if (tokens.type(i) == TokenType.Dedent) depth--;
+        }
+        assertEquals(6, maxDepth);
+        for (var type : new TokenType[]{TokenType.VAL, TokenType.Integer, TokenType.Floating, TokenType.String,
+                TokenType.Operator, TokenType.Unit, TokenType.LeftBracket, TokenType.LeftParen}) {
+            assertTrue(seen[type.ordinal()], "generates " + type);
+        }
+    }
+
+    @Test
+    @DisplayName("should control the vocabulary, the literals and the errors")
+    void t3() {
+        var code = new CorpusGenerator(1).vocabularySize(10).literalMix(1, 0, 0, 0).errorDensity(0.5)
+                .generate(100_000);
+        var errors = new ErrorList();
+        var tokens = new MainScanner(code, errors).tokenBuffer();
+
+        assertTrue(tokens.getSymbolTable().size() <= 10);
+        assertTrue(errors.getErrors().size() > 100);
+        for (int i = 0; i < tokens.size(); i++) {
+            assertNotEquals(TokenType.Floating, tokens.type(i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CorpusGenerator(1).errorDensity(2));
+    }
+
+    @Test
+    @DisplayName("should stream large inputs through a Reader")
+    void t4() {
+        var errors = new ErrorList();
+        var scanner = MainScanner.fromReader(new CorpusGenerator(3).reader(20_000_000), errors);
+        var stream = scanner.tokenStream();
+        long count = 0;
+        while (stream.next().type != TokenType.EOF) count++;
+
+        assertTrue(count > 1_000_000);
+        assertEquals(0, errors.getErrors().size());
+    }
+
+    @Test
+    @DisplayName("should add exactly one error to each line of code with an error, and comments that are not errors")
+    void t5() {
+        var code = new CorpusGenerator(5).maxIndentation(5).errorDensity(1).generate(100_000);
+        var errors = new ErrorList();
+        var buffer = new MainScanner(code, errors).tokenBuffer(ScanMode.FULL_FIDELITY);
+
+        int codeLines = 0;
+        for (var line : code.split("\n")) {
+            var trimmed = line.strip();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("//")) codeLines++;
+        }
+        assertEquals(codeLines, errors.getErrors().size());
+
+        var trivia = buffer.getTrivia();
+        int comments = 0;
+        for (int i = 0; i < trivia.size(); i++) {
+            if (trivia.kind(i) == TriviaKind.Comment) comments++;
+        }
+        assertTrue(comments > 100);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+import error.ErrorList;
+import error.ScannerError;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalScannerTest {
+
+    private static String document(int blocks) {
+        var builder = new StringBuilder();
+        for (int i = 0; i < blocks; i++) {
+            builder.append("val x").append(i).append(" = ").append(i).append("\n")
+                    .append("    id (10) \"s\\n").append(i).append("\"\n")
+                    .append("        0x1F <$> ()\n")
+                    .append("\n")
+                    .append("    1.5e+3\n");
+        }
+        return builder.toString();
+    }
+
+    private static void assertSameTokens(TokenBuffer expected, TokenBuffer actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.type(i), actual.type(i), "type of token " + i);
+            assertEquals(expected.position(i), actual.position(i), "position of token " + i);
+            assertEquals(expected.length(i), actual.length(i), "length of token " + i);
+            assertEquals(expected.lineNumber(i), actual.lineNumber(i), "line of token " + i);
+            assertEquals(expected.value(i), actual.value(i), "value of token " + i);
+            if (expected.type(i) == TokenType.Identifier) {
+                assertEquals(actual.value(i), actual.getSymbolTable().name(actual.symbol(i)), "symbol of token " + i);
+            }
+        }
+    }
+
+    private static void assertSameErrors(String text, ErrorList actual) {
+        var expected = new ErrorList();
+        new MainScanner(text, expected).tokenBuffer();
+        assertEquals(expected.getErrors().size(), actual.getErrors().size(), "amount of errors");
+        for (int i = 0; i < expected.getErrors().size(); i++) {
+            var expectedError = (ScannerError) expected.getErrors().get(i);
+            var error = (ScannerError) actual.getErrors().get(i);
+            assertEquals(expectedError.reason, error.reason, "reason of error " + i);
+            assertEquals(expectedError.start, error.start, "start of error " + i);
+            assertEquals(expectedError.end, error.end, "end of error " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("should produce the same tokens as a full scan after an edit inside a token")
+    void t1() {
+        var scanner = new IncrementalScanner(document(100));
+        int offset = scanner.getText().indexOf("x50") + 1;
+        var tokens = scanner.edit(offset, 0, "yz");
+
+        assertSameTokens(new MainScanner(scanner.getText()).tokenBuffer(), tokens);
+        assertTrue(scanner.getText().contains("val xyz50"));
+    }
+
+    @Test
+    @DisplayName("should produce the same tokens as a full scan after edits that change indentation and lines")
+    void t2() {
+        var scanner = new IncrementalScanner(document(100));
+        int offset = scanner.getText().indexOf("val x40");
+
+        // Indent a line, join two lines, and remove a block of lines
+        scanner.edit(offset, 0, "  ");
+        assertSameTokens(new MainScanner(scanner.getText()).tokenBuffer(), scanner.getTokens());
+
+        offset = scanner.getText().indexOf("\n", offset);
+        scanner.edit(offset, 1, " ");
+        assertSameTokens(new MainScanner(scanner.getText()).tokenBuffer(), scanner.getTokens());
+
+        offset = scanner.getText().indexOf("val x60");
+        scanner.edit(offset, scanner.getText().indexOf("val x70") - offset, "");
+        assertSameTokens(new MainScanner(scanner.getText()).tokenBuffer(), scanner.getTokens());
+    }
+
+    @Test
+    @DisplayName("should produce the same tokens as a full scan after random edits")
+    void t3() {
+        var random = new Random(9);
+        var fragments = new String[]{"a", " ", "\n", "    ", "\"", "\\n", "(", ")", "0x", "1.5", "+", "val "};
+        var errors = new ErrorList();
+        var scanner = new IncrementalScanner(document(30), errors);
+
+        for (int i = 0; i < 500; i++) {
+            var text = scanner.getText();
+            int offset = random.nextInt(text.length() + 1);
+            int removed = random.nextInt(Math.min(text.length() - offset, 8) + 1);
+            var inserted = random.nextBoolean() ? fragments[random.nextInt(fragments.length)] : "";
+
+            var tokens = scanner.edit(offset, removed, inserted);
+            assertSameTokens(new MainScanner(scanner.getText()).tokenBuffer(), tokens);
+            assertSameErrors(scanner.getText(), errors);
+        }
+    }
+
+    @Test
+    @DisplayName("should scan only the tokens near the edit")
+    void t4() {
+        var scanner = new IncrementalScanner(document(10_000));
+        int total = scanner.getTokens().size();
+
+        scanner.edit(scanner.getText().indexOf("x5000 "), 0, "z");
+
+        assertTrue(scanner.getLastScannedTokens() < 300, "scanned " + scanner.getLastScannedTokens());
+        assertEquals(total, scanner.getTokens().size());
+        assertSameTokens(new MainScanner(scanner.getText()).tokenBuffer(), scanner.getTokens());
+    }
+
+    @Test
+    @DisplayName("should replace the errors of the scanned region, and move the ones after it")
+    void t5() {
+        var errors = new ErrorList();
+        var scanner = new IncrementalScanner("a = \"open\nb\n", errors);
+        assertEquals(1, errors.getErrors().size());
+
+        // Closing the string removes its error
+        scanner.edit(9, 0, "\"");
+        assertSameErrors(scanner.getText(), errors);
+        assertEquals(0, errors.getErrors().size());
+
+        // Errors after the edit are moved, and the ones before it are kept
+        var text = "\"x\n" + document(20) + "\"y\n";
+        scanner = new IncrementalScanner(text, errors);
+        scanner.edit(text.indexOf("x10"), 0, "abc ");
+        assertEquals(2, errors.getErrors().size());
+        assertSameErrors(scanner.getText(), errors);
+    }
+
+    /**
+     * Types chars one by one after the x of the identifier in the middle of a document
+     *
+     * @return The amount of tokens scanned and of entries moved by each edit after the first one
+     */
+    private static int[] typeInTheMiddle(int blocks) {
+        var scanner = new IncrementalScanner(document(blocks));
+        int offset = scanner.getText().indexOf("val x" + blocks / 2 + " ") + 5;
+        scanner.edit(offset, 0, "a");
+
+        var work = new int[40];
+        for (int i = 0; i < 20; i++) {
+            scanner.edit(offset + i + 1, 0, "a");
+            work[2 * i] = scanner.getLastScannedTokens();
+            work[2 * i + 1] = scanner.getLastMovedEntries();
+        }
+        assertSameTokens(new MainScanner(scanner.getText()).tokenBuffer(), scanner.getTokens());
+        return work;
+    }
+
+    @Test
+    @DisplayName("should do the same work per edit regardless of the size of the document")
+    void t6() {
+        // Both edits are at the same distance from the previous checkpoint
+        assertArrayEquals(typeInTheMiddle(1024), typeInTheMiddle(32 * 1024));
+    }
+}
@@ -125,5 +125,20 @@ public class IndentationStateTest {
         assertEquals(4, state.get());
     }
 
+    @Test
+    @DisplayName("should store many levels")
+    void t10() {
+        var state = new IndentationState();
+        for (int i = 1; i <= 100; i++) {
+            state.increaseTo(i * 2);
+        }
+        assertEquals(100, state.depth());
+        assertEquals(200, state.get());
+        assertEquals(50, state.decreaseTo(100));
+        assertEquals(100, state.get());
+        assertEquals(50, state.decreaseTo(0));
+        assertEquals(0, state.depth());
+    }
+
     // TODO: What happens if indentation is decreased to an illegal state?
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineMapTest {
+
+    @Test
+    @DisplayName("should find the line and column of a position")
+    void t1() {
+        var lines = LineMap.of("ab\n\ncde\n");
+        assertEquals(4, lines.lineCount());
+        assertEquals(0, lines.lineOf(0));
+        assertEquals(1, lines.columnOf(1));
+        // A new line belongs to the line it ends
+        assertEquals(0, lines.lineOf(2));
+        assertEquals(1, lines.lineOf(3));
+        assertEquals(2, lines.lineOf(5));
+        assertEquals(1, lines.columnOf(5));
+        assertEquals(3, lines.lineOf(8));
+        assertEquals(0, lines.columnOf(8));
+        assertEquals(4, lines.lineStart(2));
+    }
+
+    @Test
+    @DisplayName("should map inputs that are not Strings")
+    void t2() {
+        var text = "val a = 1\n    b\nc";
+        var expected = LineMap.of(text);
+        var actual = LineMap.of(new Utf8Input(text.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(expected.lineCount(), actual.lineCount());
+        for (int i = 0; i <= text.length(); i++) {
+            assertEquals(expected.lineOf(i), actual.lineOf(i));
+            assertEquals(expected.columnOf(i), actual.columnOf(i));
+        }
+    }
+
+    @Test
+    @DisplayName("should reject positions outside of the input")
+    void t3() {
+        var lines = LineMap.of("");
+        assertEquals(1, lines.lineCount());
+        assertEquals(0, lines.lineOf(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> lines.lineOf(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> lines.lineStart(1));
+    }
+}
@@ -15,10 +15,13 @@
 
 package scanning;
 
+import error.ErrorList;
+import error.ScannerError;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -67,11 +70,11 @@ public class MainScannerTest {
 
         mainScanner = new MainScanner("126 278.98 0.282398 1798e+1 239.3298e-103");
         tokens = mainScanner.tokens();
-        assertEquals("126", tokens.get(0).value);
-        assertEquals("278.98", tokens.get(1).value);
-        assertEquals("0.282398", tokens.get(2).value);
-        assertEquals("1798e+1", tokens.get(3).value);
-        assertEquals("239.3298e-103", tokens.get(4).value);
+        assertEquals("126", tokens.get(0).getValue());
+        assertEquals("278.98", tokens.get(1).getValue());
+        assertEquals("0.282398", tokens.get(2).getValue());
+        assertEquals("1798e+1", tokens.get(3).getValue());
+        assertEquals("239.3298e-103", tokens.get(4).getValue());
         assertEquals(TokenType.EOF, tokens.get(5).type);
     }
 
@@ -83,14 +86,14 @@ public class MainScannerTest {
 
         mainScanner = new MainScanner("_ i j number number2 _ignored camelCase sneak_case_10");
         tokens = mainScanner.tokens();
-        assertEquals("_", tokens.get(0).value);
-        assertEquals("i", tokens.get(1).value);
-        assertEquals("j", tokens.get(2).value);
-        assertEquals("number", tokens.get(3).value);
-        assertEquals("number2", tokens.get(4).value);
-        assertEquals("_ignored", tokens.get(5).value);
-        assertEquals("camelCase", tokens.get(6).value);
-        assertEquals("sneak_case_10", tokens.get(7).value);
+        assertEquals("_", tokens.get(0).getValue());
+        assertEquals("i", tokens.get(1).getValue());
+        assertEquals("j", tokens.get(2).getValue());
+        assertEquals("number", tokens.get(3).getValue());
+        assertEquals("number2", tokens.get(4).getValue());
+        assertEquals("_ignored", tokens.get(5).getValue());
+        assertEquals("camelCase", tokens.get(6).getValue());
+        assertEquals("sneak_case_10", tokens.get(7).getValue());
         assertEquals(TokenType.EOF, tokens.get(8).type);
     }
 
@@ -102,23 +105,23 @@ public class MainScannerTest {
 
         mainScanner = new MainScanner("+ - * / % += -= *= /= ** *** <- <= >= => -> <$>");
         tokens = mainScanner.tokens();
-        assertEquals("+", tokens.get(0).value);
-        assertEquals("-", tokens.get(1).value);
-        assertEquals("*", tokens.get(2).value);
-        assertEquals("/", tokens.get(3).value);
-        assertEquals("%", tokens.get(4).value);
-        assertEquals("+=", tokens.get(5).value);
-        assertEquals("-=", tokens.get(6).value);
-        assertEquals("*=", tokens.get(7).value);
-        assertEquals("/=", tokens.get(8).value);
-        assertEquals("**", tokens.get(9).value);
-        assertEquals("***", tokens.get(10).value);
-        assertEquals("<-", tokens.get(11).value);
-        assertEquals("<=", tokens.get(12).value);
-        assertEquals(">=", tokens.get(13).value);
-        assertEquals("=>", tokens.get(14).value);
-        assertEquals("->", tokens.get(15).value);
-        assertEquals("<$>", tokens.get(16).value);
+        assertEquals("+", tokens.get(0).getValue());
+        assertEquals("-", tokens.get(1).getValue());
+        assertEquals("*", tokens.get(2).getValue());
+        assertEquals("/", tokens.get(3).getValue());
+        assertEquals("%", tokens.get(4).getValue());
+        assertEquals("+=", tokens.get(5).getValue());
+        assertEquals("-=", tokens.get(6).getValue());
+        assertEquals("*=", tokens.get(7).getValue());
+        assertEquals("/=", tokens.get(8).getValue());
+        assertEquals("**", tokens.get(9).getValue());
+        assertEquals("***", tokens.get(10).getValue());
+        assertEquals("<-", tokens.get(11).getValue());
+        assertEquals("<=", tokens.get(12).getValue());
+        assertEquals(">=", tokens.get(13).getValue());
+        assertEquals("=>", tokens.get(14).getValue());
+        assertEquals("->", tokens.get(15).getValue());
+        assertEquals("<$>", tokens.get(16).getValue());
         assertEquals(TokenType.EOF, tokens.get(17).type);
     }
 
@@ -223,8 +226,8 @@ public class MainScannerTest {
 
         mainScanner = new MainScanner("\"Hello\" \"world\"");
         tokens = mainScanner.tokens();
-        assertEquals("Hello", tokens.get(0).value);
-        assertEquals("world", tokens.get(1).value);
+        assertEquals("Hello", tokens.get(0).getValue());
+        assertEquals("world", tokens.get(1).getValue());
         assertEquals(TokenType.EOF, tokens.get(2).type);
     }
 
@@ -236,7 +239,7 @@ public class MainScannerTest {
 
         mainScanner = new MainScanner("()");
         tokens = mainScanner.tokens();
-        assertEquals("()", tokens.get(0).value);
+        assertEquals("()", tokens.get(0).getValue());
         assertEquals(TokenType.EOF, tokens.get(1).type);
     }
 
@@ -248,20 +251,112 @@ public class MainScannerTest {
 
         mainScanner = new MainScanner("(10)");
         tokens = mainScanner.tokens();
-        assertEquals("(", tokens.get(0).value);
-        assertEquals(")", tokens.get(2).value);
+        assertEquals("(", tokens.get(0).getValue());
+        assertEquals(")", tokens.get(2).getValue());
         assertEquals(TokenType.EOF, tokens.get(3).type);
 
         mainScanner = new MainScanner("{10}");
         tokens = mainScanner.tokens();
-        assertEquals("{", tokens.get(0).value);
-        assertEquals("}", tokens.get(2).value);
+        assertEquals("{", tokens.get(0).getValue());
+        assertEquals("}", tokens.get(2).getValue());
         assertEquals(TokenType.EOF, tokens.get(3).type);
 
         mainScanner = new MainScanner("[10]");
         tokens = mainScanner.tokens();
-        assertEquals("[", tokens.get(0).value);
-        assertEquals("]", tokens.get(2).value);
+        assertEquals("[", tokens.get(0).getValue());
+        assertEquals("]", tokens.get(2).getValue());
         assertEquals(TokenType.EOF, tokens.get(3).type);
     }
+
+    @Test
+    @DisplayName("lines with the same indentation should not emit INDENT or DEDENT")
+    void t16() {
+        ArrayList<Token> tokens = new MainScanner("id1\n    id2\n    id3\nid4").tokens();
+
+        assertEquals(TokenType.Identifier, tokens.get(0).type);
+        assertEquals(TokenType.Indent, tokens.get(1).type);
+        assertEquals(TokenType.Identifier, tokens.get(2).type);
+        assertEquals(TokenType.Identifier, tokens.get(3).type);
+        assertEquals(TokenType.Dedent, tokens.get(4).type);
+        assertEquals(TokenType.Identifier, tokens.get(5).type);
+        assertEquals(TokenType.EOF, tokens.get(6).type);
+    }
+
+    @Test
+    @DisplayName("blank lines inside a block should not emit INDENT or DEDENT")
+    void t17() {
+        ArrayList<Token> tokens = new MainScanner("id1\n    id2\n\n  \n    id3").tokens();
+
+        assertEquals(5, tokens.size());
+        assertEquals(TokenType.Indent, tokens.get(1).type);
+        assertEquals("id3", tokens.get(3).getValue());
+        assertEquals(4, tokens.get(3).lineNumber);
+    }
+
+    @Test
+    @DisplayName("should handle many consecutive blank and indented lines")
+    void t18() {
+        var input = new StringBuilder("id1\n");
+        for (int i = 0; i < 200_000; i++) {
+            input.append("    \n\n    id2\n");
+        }
+        ArrayList<Token> tokens = new MainScanner(input.toString()).tokens();
+
+        // id1, INDENT, one id2 per iteration, and EOF
+        assertEquals(200_003, tokens.size());
+    }
+
+    @Test
+    @DisplayName("should skip comments, and lines with only a comment")
+    void t19() {
+        ArrayList<Token> tokens = new MainScanner("id1 // a comment\n        // other\nid2 +// c\n    id3 //").tokens();
+
+        assertEquals(6, tokens.size());
+        assertEquals("id1", tokens.get(0).getValue());
+        assertEquals("id2", tokens.get(1).getValue());
+        assertEquals(2, tokens.get(1).lineNumber);
+        assertEquals("+", tokens.get(2).getValue());
+        assertEquals(TokenType.Indent, tokens.get(3).type);
+        assertEquals("id3", tokens.get(4).getValue());
+        assertEquals(TokenType.EOF, tokens.get(5).type);
+    }
+
+    @Test
+    @DisplayName("should report a run of unrecognized characters as a single error")
+    void t20() {
+        var errors = new ErrorList();
+        ArrayList<Token> tokens = new MainScanner("id1 ;;;;ABC; id2 \u00e9", errors).tokens();
+
+        assertEquals(3, tokens.size());
+        assertEquals("id2", tokens.get(1).getValue());
+        assertEquals(2, errors.getErrors().size());
+
+        var error = (ScannerError) errors.getErrors().get(0);
+        assertEquals("Unrecognized characters: ;;;;ABC;", error.reason);
+        assertEquals(4, error.start);
+        assertEquals(12, error.end);
+        assertEquals("Unrecognized character: \u00e9", errors.getErrors().get(1).reason);
+
+        // Chars of a Utf8Input are decoded, and a multibyte char is not cut
+        errors = new ErrorList();
+        var bytes = ("a \u00e9 b " + "\u00e9".repeat(15)).getBytes(StandardCharsets.UTF_8);
+        new MainScanner(new Utf8Input(bytes), errors).tokens();
+        error = (ScannerError) errors.getErrors().get(0);
+        assertEquals("Unrecognized character: \u00e9", error.reason);
+        assertEquals(2, error.start);
+        assertEquals(4, error.end);
+        assertEquals("Unrecognized characters: " + "\u00e9".repeat(10) + "...", errors.getErrors().get(1).reason);
+    }
+
+    @Test
+    @DisplayName("should stop scanning when the maximum amount of errors is reached")
+    void t21() {
+        var errors = new ErrorList(2);
+        ArrayList<Token> tokens = new MainScanner("a ; b ; c ; d", errors).tokens();
+
+        assertEquals(2, errors.getErrors().size());
+        // a, b and EOF after the second error
+        assertEquals(3, tokens.size());
+        assertEquals(7, tokens.get(2).position);
+    }
 }
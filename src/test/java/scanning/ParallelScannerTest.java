@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+import error.ErrorList;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelScannerTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void closePool() {
+        pool.shutdown();
+    }
+
+    private static void assertSameAsSequential(String input) {
+        assertSameAsSequential(input, Integer.MAX_VALUE);
+    }
+
+    private static void assertSameAsSequential(String input, int maxErrors) {
+        var expectedErrors = new ErrorList(maxErrors);
+        var expected = new MainScanner(input, expectedErrors).tokenBuffer();
+        var errors = new ErrorList(maxErrors);
+        var tokens = new ParallelScanner(pool, 16).tokenBuffer(input, errors);
+
+        assertEquals(expected.size(), tokens.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.type(i), tokens.type(i), "type of token " + i);
+            assertEquals(expected.position(i), tokens.position(i), "position of token " + i);
+            assertEquals(expected.length(i), tokens.length(i), "length of token " + i);
+            assertEquals(expected.lineNumber(i), tokens.lineNumber(i), "line of token " + i);
+            assertEquals(expected.value(i), tokens.value(i), "value of token " + i);
+            assertEquals(expected.symbol(i), tokens.symbol(i), "symbol of token " + i);
+            if (expected.type(i) == TokenType.Integer || expected.type(i) == TokenType.Floating) {
+                assertEquals(expected.exactValue(i), tokens.exactValue(i), "value of number " + i);
+            }
+        }
+
+        assertEquals(expectedErrors.getErrors().size(), errors.getErrors().size());
+        for (int i = 0; i < expectedErrors.getErrors().size(); i++) {
+            assertEquals(expectedErrors.getErrors().get(i).reason, errors.getErrors().get(i).reason);
+        }
+    }
+
+    @Test
+    @DisplayName("should produce the same tokens as a single scanner")
+    void t1() {
+        var builder = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            builder.append("val x").append(i).append(" = ").append(i).append("\n")
+                    .append("    id (10) \"s\\\"").append(i).append("\"\n")
+                    .append("        0x1F <$> ()\n")
+                    .append("\n   \n")
+                    .append("    1.5e+3\n");
+        }
+        assertSameAsSequential(builder.toString());
+    }
+
+    @Test
+    @DisplayName("should produce the same line numbers and errors with unterminated strings and unknown chars")
+    void t2() {
+        var builder = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            builder.append("id ").append(i).append(" \"open\\\\\n")
+                    .append("val x = # ?\n")
+                    .append("    \"a\\\"\n")
+                    .append("next\n");
+        }
+        assertSameAsSequential(builder.toString());
+    }
+
+    @Test
+    @DisplayName("should split at every line with no indentation, even after an unterminated string")
+    void t3() {
+        var input = "a \"open\nb\n  c \"closed\"\nd";
+        var splits = ParallelScanner.splitPoints(input, input.length());
+
+        assertArrayEquals(new int[]{0, 8, 23, input.length()}, splits);
+    }
+
+    @Test
+    @DisplayName("should scan small inputs in one chunk")
+    void t4() {
+        assertArrayEquals(new int[]{0, 3}, ParallelScanner.splitPoints("a\nb", 1));
+        assertSameAsSequential("");
+        assertSameAsSequential("    a\n  b");
+    }
+
+    @Test
+    @DisplayName("should stop at the same token as a single scanner when the errors reach the maximum")
+    void t5() {
+        var builder = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            builder.append("val x").append(i).append(" = ").append(i).append("\n");
+            if (i % 50 == 0) builder.append("id ;;; \"open\n");
+        }
+        assertSameAsSequential(builder.toString(), 15);
+    }
+
+    @Test
+    @DisplayName("should not split at lines with only a comment")
+    void t6() {
+        var input = "a\n    b\n// c\nd\n";
+        assertArrayEquals(new int[]{0, 13, input.length()}, ParallelScanner.splitPoints(input, input.length()));
+
+        assertSameAsSequential(input.repeat(50));
+        assertSameAsSequential("val a = 1\n    b\n    // c\n// d\n  // e\ne\n".repeat(50));
+        for (int seed = 0; seed < 20; seed++) {
+            assertSameAsSequential(new CorpusGenerator(seed).maxIndentation(3).generate(20_000));
+        }
+    }
+}
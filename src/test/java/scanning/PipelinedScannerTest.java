@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import error.ErrorList;
+import error.ScannerError;
+import error.SyntaxError;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PipelinedScannerTest {
+
+    private static void assertSameAsSequential(String input, int maxErrors) {
+        var expectedErrors = new ErrorList(maxErrors);
+        var expected = new MainScanner(input, expectedErrors).tokenStream();
+        var errors = new ErrorList(maxErrors);
+
+        try (var pipeline = new PipelinedScanner(input, errors, new SymbolTable(), 7, 2)) {
+            var tokens = pipeline.tokenStream(2);
+            int i = 0;
+            Token token;
+            do {
+                var expectedToken = expected.next();
+                token = tokens.next();
+                assertEquals(expectedToken.type, token.type, "type of token " + i);
+                assertEquals(expectedToken.position, token.position, "position of token " + i);
+                assertEquals(expectedToken.getValue(), token.getValue(), "value of token " + i);
+                // Errors are reported when the same token is taken
+                assertEquals(expectedErrors.getErrors().size(), errors.getErrors().size(), "errors at token " + i);
+                i++;
+            } while (token.type != TokenType.EOF);
+        }
+
+        for (int i = 0; i < expectedErrors.getErrors().size(); i++) {
+            var expectedError = (ScannerError) expectedErrors.getErrors().get(i);
+            var error = (ScannerError) errors.getErrors().get(i);
+            assertEquals(expectedError.reason, error.reason);
+            assertEquals(expectedError.start, error.start);
+        }
+    }
+
+    @Test
+    @DisplayName("should take the same tokens and errors as a single thread")
+    void t1() {
+        assertSameAsSequential("", Integer.MAX_VALUE);
+        assertSameAsSequential("val x = 10\n    f x ;; \"open\n", Integer.MAX_VALUE);
+        var input = new CorpusGenerator(7).errorDensity(0.02).generate(50_000);
+        assertSameAsSequential(input, Integer.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("should stop scanning at the maximum amount of errors")
+    void t2() {
+        var input = new CorpusGenerator(11).errorDensity(0.05).generate(20_000);
+        assertSameAsSequential(input, 5);
+    }
+
+    @Test
+    @DisplayName("should throw the failure of the scanner after the tokens scanned before it")
+    void t3() {
+        var reader = new Reader() {
+            private boolean read = false;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                if (read) throw new IOException("Disk error");
+                read = true;
+                "a b ".getChars(0, 4, buffer, offset);
+                return 4;
+            }
+
+            @Override
+            public void close() {}
+        };
+
+        var tokens = new PipelinedScanner(new ReaderInput(reader), new ErrorList()).tokenStream(1);
+        assertEquals("a", tokens.next().getValue());
+        assertEquals("b", tokens.next().getValue());
+        var e = assertThrows(UncheckedIOException.class, tokens::next);
+        assertEquals("Disk error", e.getCause().getMessage());
+    }
+
+    @Test
+    @DisplayName("should keep the items of the queue in order, up to its capacity")
+    void t4() {
+        var queue = new SpscQueue<Integer>(3);
+        assertEquals(4, queue.capacity());
+        assertNull(queue.poll());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(0, queue.poll());
+        assertTrue(queue.offer(4));
+        for (int i = 1; i < 5; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertNull(queue.poll());
+        assertThrows(IllegalStateException.class, () -> {
+            var pipeline = new PipelinedScanner("a", new ErrorList());
+            pipeline.tokenStream(1);
+            pipeline.tokenStream(1);
+        });
+    }
+
+    @Test
+    @DisplayName("should stop the scanner thread when closed before the EOF token")
+    void t5() throws InterruptedException {
+        var input = new CorpusGenerator(3).generate(200_000);
+        var pipeline = new PipelinedScanner(input, new ErrorList(), new SymbolTable(), 8, 2);
+        try (pipeline) {
+            var tokens = pipeline.tokenStream(1);
+            tokens.next();
+            tokens.next();
+        }
+
+        // The queue is full, so the thread waits for the consumer until it sees the close
+        for (int i = 0; i < 500 && pipeline.isScanning(); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(pipeline.isScanning());
+    }
+
+    /**
+     * Takes every token, reporting a syntax error every few tokens like a parser would
+     *
+     * @return The types and positions of the tokens taken
+     */
+    private static String consume(TokenStream stream, ErrorList errors) {
+        var taken = new StringBuilder();
+        Token token;
+        int count = 0;
+        do {
+            token = stream.next();
+            taken.append(token.type).append('@').append(token.position).append(' ');
+            if (++count % 5 == 0) errors.addError(new SyntaxError("Syntax error at " + token.position));
+        } while (token.type != TokenType.EOF);
+        return taken.toString();
+    }
+
+    @Test
+    @DisplayName("should not stop when the consumer fills the ErrorList, like a single thread")
+    void t6() {
+        var input = new CorpusGenerator(13).errorDensity(0.05).generate(5_000);
+
+        var expectedErrors = new ErrorList(10);
+        var expected = consume(new MainScanner(input, expectedErrors).tokenStream(), expectedErrors);
+        assertTrue(expectedErrors.isFull());
+
+        var errors = new ErrorList(10);
+        try (var pipeline = new PipelinedScanner(input, errors, new SymbolTable(), 4, 2)) {
+            assertEquals(expected, consume(pipeline.tokenStream(1), errors));
+        }
+        assertEquals(expectedErrors.getErrors().size(), errors.getErrors().size());
+        for (int i = 0; i < errors.getErrors().size(); i++) {
+            assertEquals(expectedErrors.getErrors().get(i).reason, errors.getErrors().get(i).reason);
+        }
+
+        // Errors that the list already had count for both
+        var full = new ErrorList(1);
+        full.addError(new SyntaxError("Previous error"));
+        try (var pipeline = new PipelinedScanner(input, full)) {
+            assertEquals(consume(new MainScanner(input, full).tokenStream(), new ErrorList()),
+                    consume(pipeline.tokenStream(1), new ErrorList()));
+        }
+    }
+}
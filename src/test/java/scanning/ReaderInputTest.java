@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+import error.ErrorList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReaderInputTest {
+
+    /**
+     * A Reader that returns at most 3 chars per read, so tokens are split between reads
+     */
+    private static class SlowReader extends StringReader {
+        SlowReader(String s) {
+            super(s);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws java.io.IOException {
+            return super.read(buffer, offset, Math.min(length, 3));
+        }
+    }
+
+    private static void assertSameTokens(String input, Reader reader, int windowSize) {
+        var expected = new MainScanner(input).tokenStream();
+        var tokens = new MainScanner(new ReaderInput(reader, windowSize)).tokenStream();
+
+        Token e;
+        do {
+            e = expected.next();
+            Token t = tokens.next();
+            assertEquals(e.type, t.type);
+            assertEquals(e.getValue(), t.getValue());
+            assertEquals(e.position, t.position);
+            assertEquals(e.lineNumber, t.lineNumber);
+        } while (e.type != TokenType.EOF);
+    }
+
+    @Test
+    @DisplayName("should scan the same tokens as a String, with tokens split between reads")
+    void t1() {
+        var input = "val identifier = 0x1F + 1.5e+10 <$>\n    \"a string\\n\\\"\" (   ) ( 20 )\n\nid";
+        assertSameTokens(input, new SlowReader(input), 16);
+    }
+
+    @Test
+    @DisplayName("should grow the window for tokens longer than it")
+    void t2() {
+        var input = "start \"" + "x".repeat(100) + "\" " + "y".repeat(50) + " end";
+        var scanner = new MainScanner(new ReaderInput(new SlowReader(input), 16));
+        var tokens = scanner.tokens();
+
+        assertEquals("x".repeat(100), tokens.get(1).getValue());
+        assertEquals("y".repeat(50), tokens.get(2).getValue());
+        assertEquals("end", tokens.get(3).getValue());
+        assertTrue(((ReaderInput) scanner.getInput()).getWindowSize() >= 100);
+    }
+
+    @Test
+    @DisplayName("should scan a large input with a window of fixed size")
+    void t3() {
+        var builder = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            builder.append("val x").append(i).append(" = ").append(i).append("\n    \"s\"\n");
+        }
+        var input = builder.toString();
+        assertSameTokens(input, new StringReader(input), 64);
+
+        var readerInput = new ReaderInput(new StringReader(input), 64);
+        var stream = new MainScanner(readerInput).tokenStream();
+        while (stream.next().type != TokenType.EOF) {}
+        assertEquals(64, readerInput.getWindowSize());
+        assertEquals(input.length(), readerInput.length());
+    }
+
+    @Test
+    @DisplayName("should not create a TokenBuffer from a Reader")
+    void t4() {
+        var scanner = MainScanner.fromReader(new StringReader("id"), new ErrorList());
+        assertThrows(IllegalStateException.class, scanner::tokenBuffer);
+    }
+}
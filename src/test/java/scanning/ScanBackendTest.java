@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+import error.ErrorList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ScanBackendTest {
+
+    private static final String[] fragments = {
+            " ", "    ", "                                        ", "\n", "identifier", "_x9",
+            "aVeryLongIdentifierWithMoreThan32Chars_0123456789", "\"", "\"plain string contents\"",
+            "\"\u00f1and\u00fa \u20ac\"", "\"esc\\n\\\"aped\\\\\"", "\\", "0x1F", "1.5e+3", "(", " )", "<$>", "#", "val"
+    };
+
+    private static String randomDocument(Random random, int fragmentCount) {
+        var builder = new StringBuilder();
+        for (int i = 0; i < fragmentCount; i++) {
+            builder.append(fragments[random.nextInt(fragments.length)]);
+        }
+        return builder.toString();
+    }
+
+    private static TokenBuffer scan(CharSequence input, ScanBackend backend, ErrorList errors) {
+        return new MainScanner(input, errors, new SymbolTable(), backend).tokenBuffer();
+    }
+
+    private static void assertSameTokens(TokenBuffer expected, TokenBuffer actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.type(i), actual.type(i), "type of token " + i);
+            assertEquals(expected.position(i), actual.position(i), "position of token " + i);
+            assertEquals(expected.length(i), actual.length(i), "length of token " + i);
+            assertEquals(expected.lineNumber(i), actual.lineNumber(i), "line of token " + i);
+            assertEquals(expected.value(i), actual.value(i), "value of token " + i);
+            assertEquals(expected.symbol(i), actual.symbol(i), "symbol of token " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("the scalar backend should always be available")
+    void t1() {
+        assertNotNull(ScanBackend.scalar());
+        assertNotNull(ScanBackend.getDefault());
+        assertEquals(3, ScanBackend.scalar().skipSpaces("   a", 0, 4));
+        assertEquals(4, ScanBackend.scalar().skipIdentifierChars("ab_9 ", 0, 5));
+        assertEquals(2, ScanBackend.scalar().findStringSpecialChar("ab\\\"", 0, 4));
+    }
+
+    @Test
+    @DisplayName("the vector backend should find the same positions as the scalar backend")
+    void t2() {
+        var vector = ScanBackend.vector();
+        assumeTrue(vector != null, "jdk.incubator.vector is not available");
+        var scalar = ScanBackend.scalar();
+
+        var random = new Random(14);
+        for (int i = 0; i < 100; i++) {
+            var bytes = ("pad" + randomDocument(random, 20)).getBytes(StandardCharsets.UTF_8);
+            // An input that doesn't start at the beginning of its array
+            var input = new Utf8Input(ByteBuffer.wrap(bytes, 3, bytes.length - 3).slice());
+            int length = input.length();
+
+            for (int from = 0; from < length; from++) {
+                int to = from + random.nextInt(length - from + 1);
+                assertEquals(scalar.skipSpaces(input, from, to), vector.skipSpaces(input, from, to));
+                assertEquals(scalar.skipIdentifierChars(input, from, to), vector.skipIdentifierChars(input, from, to));
+                assertEquals(scalar.findStringSpecialChar(input, from, to),
+                        vector.findStringSpecialChar(input, from, to));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("the vector backend should produce the same tokens and errors as the scalar backend")
+    void t3() {
+        var vector = ScanBackend.vector();
+        assumeTrue(vector != null, "jdk.incubator.vector is not available");
+
+        var random = new Random(41);
+        for (int i = 0; i < 300; i++) {
+            var document = randomDocument(random, 200);
+            var bytes = document.getBytes(StandardCharsets.UTF_8);
+
+            var expectedErrors = new ErrorList();
+            var expected = scan(new Utf8Input(bytes), ScanBackend.scalar(), expectedErrors);
+            var errors = new ErrorList();
+            var tokens = scan(new Utf8Input(bytes), vector, errors);
+
+            assertSameTokens(expected, tokens);
+            assertEquals(expectedErrors.getErrors().size(), errors.getErrors().size());
+            for (int j = 0; j < errors.getErrors().size(); j++) {
+                assertEquals(expectedErrors.getErrors().get(j).reason, errors.getErrors().get(j).reason);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("every backend should produce the same tokens over a String and over ASCII bytes")
+    void t4() {
+        var random = new Random(7);
+        for (int i = 0; i < 100; i++) {
+            var document = randomDocument(random, 200).replaceAll("[^\\x00-\\x7f]", "n");
+            var expected = scan(document, ScanBackend.scalar(), new ErrorList());
+
+            var utf8 = new Utf8Input(document.getBytes(StandardCharsets.UTF_8));
+            assertSameTokens(expected, scan(utf8, ScanBackend.scalar(), new ErrorList()));
+            if (ScanBackend.vector() != null) {
+                assertSameTokens(expected, scan(utf8, ScanBackend.vector(), new ErrorList()));
+                assertSameTokens(expected, scan(document, ScanBackend.vector(), new ErrorList()));
+            }
+        }
+    }
+}
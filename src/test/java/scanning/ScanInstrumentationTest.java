@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import error.ErrorList;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScanInstrumentationTest {
+
+    @BeforeEach
+    void enable() {
+        ScanInstrumentation.reset();
+        ScanInstrumentation.enable();
+    }
+
+    @AfterEach
+    void disable() {
+        ScanInstrumentation.disable();
+        ScanInstrumentation.reset();
+    }
+
+    @Test
+    @DisplayName("should count the scans, chars, tokens and errors")
+    void t1() {
+        var input = "val a = 1 + 2 ;";
+        new MainScanner(input).tokenBuffer();
+        new MainScanner(input).tokens();
+
+        var metrics = ScanInstrumentation.metrics();
+        assertEquals(2, metrics.getScanCount());
+        assertEquals(2L * input.length(), metrics.getCharCount());
+        // val a = 1 + 2 EOF
+        assertEquals(14, metrics.getTokenCount());
+        assertEquals(4, metrics.getTokenCount(TokenType.Integer));
+        assertEquals(2, metrics.getTokenCount(TokenType.EOF));
+        assertEquals(2, metrics.getErrorCount());
+        assertTrue(metrics.getScanNanos() > 0);
+        assertNotEquals(0, metrics.getAllocatedBytes());
+    }
+
+    @Test
+    @DisplayName("should not record scanners created while it's disabled")
+    void t2() {
+        ScanInstrumentation.disable();
+        new MainScanner("a b c").tokenBuffer();
+        assertEquals(0, ScanInstrumentation.metrics().getScanCount());
+        assertEquals(0, ScanInstrumentation.metrics().getTokenCount(TokenType.Identifier));
+    }
+
+    @Test
+    @DisplayName("should commit a Flight Recorder event for each scan")
+    void t3() throws IOException {
+        var file = Files.createTempFile("scan", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable("misti.Scan");
+            recording.start();
+            new MainScanner("id1 id2 \"open", new ErrorList()).tokenBuffer();
+            recording.stop();
+            recording.dump(file);
+
+            var events = RecordingFile.readAllEvents(file);
+            assertEquals(1, events.size());
+            assertEquals(13, events.get(0).getLong("chars"));
+            assertEquals(4, events.get(0).getLong("tokens"));
+            assertEquals(1, events.get(0).getLong("errors"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("should record the chunks of a parallel scan and the regions of an incremental scan")
+    void t4() {
+        var input = "val a = 1\nb\n".repeat(100);
+        new ParallelScanner(ForkJoinPool.commonPool(), 64).tokenBuffer(input, new ErrorList());
+        var metrics = ScanInstrumentation.metrics();
+        assertTrue(metrics.getScanCount() > 1);
+        assertEquals(input.length(), metrics.getCharCount());
+        assertEquals(200, metrics.getTokenCount(TokenType.Identifier));
+
+        ScanInstrumentation.reset();
+        var scanner = new IncrementalScanner(input);
+        scanner.edit(input.indexOf("b"), 0, "c");
+        assertEquals(2, metrics.getScanCount());
+        assertTrue(metrics.getCharCount() < 2L * input.length());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbolTableTest {
+
+    @Test
+    @DisplayName("should give dense ids in order of appearance")
+    void t1() {
+        var table = new SymbolTable();
+        assertEquals(0, table.intern("a"));
+        assertEquals(1, table.intern("b"));
+        assertEquals(0, table.intern("a"));
+        assertEquals(2, table.size());
+        assertEquals("b", table.name(1));
+    }
+
+    @Test
+    @DisplayName("should intern a region of the input without creating a String for known names")
+    void t2() {
+        var table = new SymbolTable();
+        var input = "name other name";
+        int id = table.intern(input, 0, 4, SymbolTable.hash(input, 0, 4));
+
+        assertEquals(id, table.intern(input, 11, 15, SymbolTable.hash(input, 11, 15)));
+        assertEquals(id, table.find("name"));
+        assertEquals(-1, table.find("other"));
+        assertEquals("name".hashCode(), SymbolTable.hash(input, 0, 4));
+    }
+
+    @Test
+    @DisplayName("should keep ids after growing")
+    void t3() {
+        var table = new SymbolTable();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, table.intern("id" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, table.find("id" + i));
+            assertEquals("id" + i, table.name(i));
+        }
+        // Names with the same hash
+        assertNotEquals(table.intern("Aa"), table.intern("BB"));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBufferTest {
+
+    private void assertSameTokens(String input) {
+        var expected = new MainScanner(input).tokens();
+        var buffer = new MainScanner(input).tokenBuffer();
+
+        assertEquals(expected.size(), buffer.size());
+        for (int i = 0; i < expected.size(); i++) {
+            var token = expected.get(i);
+            assertEquals(token.type, buffer.type(i));
+            assertEquals(token.getValue(), buffer.value(i));
+            assertEquals(token.lineNumber, buffer.lineNumber(i));
+            assertEquals(token.position, buffer.position(i));
+        }
+    }
+
+    @Test
+    @DisplayName("should store the same tokens as tokens()")
+    void t1() {
+        assertSameTokens("");
+        assertSameTokens("126 278.98 0x1f 1798e+1 _ camelCase var val");
+        assertSameTokens("+ - ** <$> ( ) [ ] { } (10) ( ) (  10 )");
+        assertSameTokens("id1\n    id2\n        id3\n    id2_1\nid1");
+        assertSameTokens("id1\n   id2\n        id3\nid4");
+    }
+
+    @Test
+    @DisplayName("should store the value of strings with and without escape characters")
+    void t2() {
+        assertSameTokens("\"Hello\" \"Sample\\ntext\" \"\" \"with \\\"quotes\\\"\" \"last\"");
+        assertSameTokens("\"Hello,\nworld");
+    }
+
+    @Test
+    @DisplayName("should store the length of each token")
+    void t3() {
+        var buffer = new MainScanner("name \"str\" ( )").tokenBuffer();
+        assertEquals(4, buffer.length(0));
+        assertEquals(5, buffer.length(1));
+        assertEquals(3, buffer.length(2));
+        assertEquals(0, buffer.length(3));
+    }
+
+    @Test
+    @DisplayName("should iterate with a cursor")
+    void t4() {
+        var buffer = new MainScanner("a b\n    c").tokenBuffer();
+        var cursor = buffer.cursor();
+        var types = new StringBuilder();
+        while (cursor.isValid()) {
+            types.append(cursor.type()).append(' ');
+            cursor.advance();
+        }
+        assertEquals("Identifier Identifier Indent Identifier EOF ", types.toString());
+    }
+
+    @Test
+    @DisplayName("should throw on an invalid index")
+    void t5() {
+        var buffer = new MainScanner("a").tokenBuffer();
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.type(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.value(-1));
+    }
+
+    @Test
+    @DisplayName("a TokenStream should read from a TokenBuffer")
+    void t6() {
+        var stream = new TokenStream(new MainScanner("a (10)").tokenBuffer());
+        assertEquals("a", stream.next().getValue());
+        assertEquals(TokenType.LeftParen, stream.next().type);
+        assertEquals("10", stream.peek().getValue());
+        assertEquals(TokenType.RightParen, stream.peek(1).type);
+        assertEquals(TokenType.EOF, stream.peek(2).type);
+    }
+
+    @Test
+    @DisplayName("should store the value of numbers")
+    void t7() {
+        var buffer = new MainScanner("10 0x1F 2.5e+2 99999999999999999999 id").tokenBuffer();
+        assertEquals(10, buffer.longValue(0));
+        assertEquals(31, buffer.longValue(1));
+        assertEquals(250.0, buffer.doubleValue(2));
+        assertTrue(buffer.isOverflow(3));
+        assertEquals(new BigInteger("99999999999999999999"), buffer.exactValue(3));
+        assertFalse(buffer.isOverflow(4));
+        assertThrows(IllegalStateException.class, () -> buffer.longValue(4));
+        assertEquals(31, new TokenStream(buffer).peek(1).getLongValue());
+
+        // Numbers added without a value are parsed
+        var manual = new TokenBuffer("x 0x10");
+        manual.add(TokenType.Integer, 2, 4);
+        assertEquals(16, manual.longValue(0));
+    }
+
+    @Test
+    @DisplayName("should find the line and column of tokens from their position")
+    void t8() {
+        var buffer = new MainScanner("val x = \"open\n  y\n\nz 10").tokenBuffer();
+        // val x = String Indent y Dedent z 10 EOF
+        assertEquals(0, buffer.lineNumber(3));
+        assertEquals(8, buffer.column(3));
+        assertEquals(TokenType.Indent, buffer.type(4));
+        assertEquals(1, buffer.lineNumber(5));
+        assertEquals(2, buffer.column(5));
+        assertEquals(TokenType.Dedent, buffer.type(6));
+        assertEquals(3, buffer.lineNumber(7));
+        assertEquals(2, buffer.column(8));
+        assertEquals(3, buffer.lineNumber(buffer.size() - 1));
+
+        // Line numbers of the scanner are the same after a string ended by a new line
+        assertSameTokens("val x = \"open\n  y\n\nz \"a\\\"\n10");
+    }
+
+    @Test
+    @DisplayName("should keep the chars between tokens only in full fidelity mode")
+    void t9() {
+        var input = "val x = 1 // one\n    \n  y ;\"s\"\n// end";
+        assertNull(new MainScanner(input).tokenBuffer().getTrivia());
+
+        var buffer = new MainScanner(input).tokenBuffer(ScanMode.FULL_FIDELITY);
+        var trivia = buffer.getTrivia();
+
+        // The input is rebuilt from the tokens and the trivia before each one
+        var rebuilt = new StringBuilder();
+        for (int i = 0; i < buffer.size(); i++) {
+            for (int t = buffer.leadingTriviaStart(i); t < buffer.leadingTriviaEnd(i); t++) {
+                rebuilt.append(trivia.text(t));
+            }
+            rebuilt.append(input, buffer.position(i), buffer.position(i) + buffer.length(i));
+        }
+        assertEquals(input, rebuilt.toString());
+
+        // The comment is attached to the INDENT on the next line
+        int comment = buffer.leadingTriviaStart(4) + 1;
+        assertEquals(TriviaKind.Comment, trivia.kind(comment));
+        assertEquals("// one", trivia.text(comment).toString());
+        assertEquals(TriviaKind.Unknown, trivia.kind(buffer.leadingTriviaEnd(6) - 1));
+        assertEquals(TriviaKind.Comment, trivia.kind(trivia.size() - 1));
+    }
+
+    @Test
+    @DisplayName("should store the kind of operators")
+    void t10() {
+        var buffer = new MainScanner("a += b <=> c").tokenBuffer();
+        assertEquals(OperatorKind.PlusEqual, buffer.operator(1));
+        assertEquals(OperatorKind.Custom, buffer.operator(3));
+        assertEquals("<=>", buffer.value(3));
+        assertNull(buffer.operator(0));
+        assertEquals(OperatorKind.PlusEqual, new TokenStream(buffer).peek(1).operator);
+
+        var manual = new TokenBuffer("x |> y");
+        manual.add(TokenType.Operator, 2, 2);
+        assertEquals(OperatorKind.PipeRight, manual.cursor().operator());
+    }
+}
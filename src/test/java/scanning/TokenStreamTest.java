@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TokenStreamTest {
+
+    private TokenStream streamOf(String s) {
+        return new MainScanner(s).tokenStream();
+    }
+
+    @Test
+    @DisplayName("should return the tokens in order, then EOF")
+    void t1() {
+        var stream = streamOf("id1 20 \"str\"");
+        assertEquals("id1", stream.next().getValue());
+        assertEquals("20", stream.next().getValue());
+        assertEquals("str", stream.next().getValue());
+        assertEquals(TokenType.EOF, stream.next().type);
+    }
+
+    @Test
+    @DisplayName("should keep returning EOF after the input ends")
+    void t2() {
+        var stream = streamOf("");
+        assertEquals(TokenType.EOF, stream.next().type);
+        assertEquals(TokenType.EOF, stream.next().type);
+        assertEquals(TokenType.EOF, stream.peek().type);
+    }
+
+    @Test
+    @DisplayName("should peek ahead without consuming")
+    void t3() {
+        var stream = streamOf("a b c");
+        assertEquals("a", stream.peek().getValue());
+        assertEquals("b", stream.peek(1).getValue());
+        assertEquals("c", stream.peek(2).getValue());
+        assertEquals(TokenType.EOF, stream.peek(3).type);
+        assertEquals(TokenType.EOF, stream.peek(10).type);
+        assertEquals("a", stream.next().getValue());
+    }
+
+    @Test
+    @DisplayName("should return to the mark after a reset")
+    void t4() {
+        var stream = streamOf("a b c d");
+        stream.next();
+        stream.mark();
+        assertEquals("b", stream.next().getValue());
+        stream.mark();
+        assertEquals("c", stream.next().getValue());
+        stream.reset();
+        assertEquals("c", stream.next().getValue());
+        stream.reset();
+        assertEquals("b", stream.next().getValue());
+    }
+
+    @Test
+    @DisplayName("should keep the position after a release")
+    void t5() {
+        var stream = streamOf("a b c");
+        stream.mark();
+        stream.next();
+        stream.release();
+        assertEquals("b", stream.next().getValue());
+        assertThrows(IllegalStateException.class, stream::reset);
+    }
+
+    @Test
+    @DisplayName("should emit the same tokens as tokens()")
+    void t6() {
+        var input = "id1\n    id2 + 3\n        id3\nid4 (10) ()";
+        var expected = new MainScanner(input).tokens();
+        var stream = streamOf(input);
+        for (Token token : expected) {
+            var t = stream.next();
+            assertEquals(token.type, t.type);
+            assertEquals(token.getValue(), t.getValue());
+            assertEquals(token.position, t.position);
+        }
+    }
+
+    @Test
+    @DisplayName("should keep a fixed amount of tokens with a lookahead")
+    void t7() {
+        var input = "a b c d e f g h i j k l m n o p q r s t u v w x y z ".repeat(1000);
+        var stream = new TokenStream(new MainScanner(input), 3);
+        assertEquals(4, stream.capacity());
+        assertThrows(IllegalArgumentException.class, () -> stream.peek(3));
+
+        int count = 0;
+        while (stream.peek(2).type != TokenType.EOF) {
+            stream.next();
+            count++;
+        }
+        assertEquals(26 * 1000 - 2, count);
+        assertEquals(4, stream.capacity());
+    }
+
+    @Test
+    @DisplayName("should grow while marked, and shrink after the mark is removed")
+    void t8() {
+        var stream = new TokenStream(new MainScanner("a b c d e f g h i j"), 2);
+        stream.mark();
+        for (int i = 0; i < 6; i++) stream.next();
+        assertEquals(8, stream.capacity());
+        stream.reset();
+        assertEquals("a", stream.next().getValue());
+        assertEquals(8, stream.capacity());
+
+        // The tokens after the mark were already scanned, once they are consumed the buffer shrinks
+        for (int i = 0; i < 4; i++) stream.next();
+        assertEquals(2, stream.capacity());
+        assertEquals("f", stream.next().getValue());
+
+        assertThrows(IllegalArgumentException.class, () -> new TokenStream(new MainScanner("a"), 0));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class Utf8InputTest {
+
+    private static Utf8Input utf8(String s) {
+        return new Utf8Input(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("should scan the same tokens as a String for ASCII input")
+    void t1() {
+        var input = "id1 (10) ()\n    \"str\\n\" 1.5e+3 <$>\nval x = 0xff";
+        var expected = new MainScanner(input).tokens();
+        var tokens = new MainScanner(utf8(input)).tokens();
+
+        assertEquals(expected.size(), tokens.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).type, tokens.get(i).type);
+            assertEquals(expected.get(i).getValue(), tokens.get(i).getValue());
+            assertEquals(expected.get(i).position, tokens.get(i).position);
+        }
+    }
+
+    @Test
+    @DisplayName("should decode non ASCII strings, and use byte offsets as positions")
+    void t2() {
+        var tokens = new MainScanner(utf8("\"a\u00f1o \u00f1and\u00fa\" id \"\u20ac\\t\"")).tokens();
+
+        assertEquals("a\u00f1o \u00f1and\u00fa", tokens.get(0).getValue());
+        assertEquals(TokenType.Identifier, tokens.get(1).type);
+        // The string is 9 chars, but 12 bytes, plus 2 quotes and a space
+        assertEquals(15, tokens.get(1).position);
+        assertEquals("\u20ac\t", tokens.get(2).getValue());
+    }
+
+    @Test
+    @DisplayName("should scan from a buffer without an array")
+    void t3() {
+        var bytes = "id1 20".getBytes(StandardCharsets.UTF_8);
+        var buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+
+        var tokens = new MainScanner(new Utf8Input(buffer)).tokens();
+        assertEquals("id1", tokens.get(0).getValue());
+        assertEquals("20", tokens.get(1).getValue());
+    }
+
+    @Test
+    @DisplayName("should scan a file mapped to memory")
+    void t4() throws IOException {
+        var file = Files.createTempFile("misti", ".misti");
+        try {
+            Files.write(file, "val name = \"\u00f1\"\n    id".getBytes(StandardCharsets.UTF_8));
+            var buffer = MainScanner.fromFile(file, new error.ErrorList()).tokenBuffer();
+
+            assertEquals(TokenType.VAL, buffer.type(0));
+            assertEquals("\u00f1", buffer.value(3));
+            assertEquals(TokenType.Indent, buffer.type(4));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -33,7 +33,7 @@ public class GroupingSignScannerTest {
     @DisplayName("should scan unit ()")
     void t1() {
         var token = tokenOf("()");
-        assertEquals("()", token.value);
+        assertEquals("()", token.getValue());
         assertEquals(TokenType.Unit, token.type);
     }
 
@@ -41,11 +41,11 @@ public class GroupingSignScannerTest {
     @DisplayName("should scan unit with whitespace in between")
     void t11() {
         var token = tokenOf("( )");
-        assertEquals("()", token.value);
+        assertEquals("()", token.getValue());
         assertEquals(TokenType.Unit, token.type);
 
         token = tokenOf("(      )");
-        assertEquals("()", token.value);
+        assertEquals("()", token.getValue());
         assertEquals(TokenType.Unit, token.type);
     }
 
@@ -53,11 +53,11 @@ public class GroupingSignScannerTest {
     @DisplayName("should scan a open and close parenthesis")
     void t2() {
         var token = tokenOf("(10)");
-        assertEquals("(", token.value);
+        assertEquals("(", token.getValue());
         assertEquals(TokenType.LeftParen, token.type);
 
         token = tokenOf(").log");
-        assertEquals(")", token.value);
+        assertEquals(")", token.getValue());
         assertEquals(TokenType.RightParen, token.type);
     }
 
@@ -65,11 +65,11 @@ public class GroupingSignScannerTest {
     @DisplayName("should scan open and closed brackets")
     void t3() {
         var token = tokenOf("[");
-        assertEquals("[", token.value);
+        assertEquals("[", token.getValue());
         assertEquals(TokenType.LeftBracket, token.type);
 
         token = tokenOf("]");
-        assertEquals("]", token.value);
+        assertEquals("]", token.getValue());
         assertEquals(TokenType.RightBracket, token.type);
     }
 
@@ -77,11 +77,11 @@ public class GroupingSignScannerTest {
     @DisplayName("should scan open and closed braces")
     void t4() {
         var token = tokenOf("{");
-        assertEquals("{", token.value);
+        assertEquals("{", token.getValue());
         assertEquals(TokenType.LeftBrace, token.type);
 
         token = tokenOf("}");
-        assertEquals("}", token.value);
+        assertEquals("}", token.getValue());
         assertEquals(TokenType.RightBrace, token.type);
     }
 }
@@ -18,21 +18,29 @@ package scanning.scanner;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import scanning.MainScanner;
+import scanning.SourceSlice;
 import scanning.Token;
 import scanning.TokenType;
 
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class IdentifierScannerTest {
 
+    // Every keyword of the language, and its type
+    private static final Map<String, TokenType> keywords = Map.of(
+            "var", TokenType.VAR,
+            "val", TokenType.VAL
+    );
+
     private Token tokenOf(String s) {
         return new IdentifierScanner(new MainScanner(s)).scan();
     }
 
     private String valueOf(String s) {
-        return new IdentifierScanner(new MainScanner(s)).scan().value;
+        return new IdentifierScanner(new MainScanner(s)).scan().getValue();
     }
 
     @Test
@@ -91,9 +99,38 @@ public class IdentifierScannerTest {
     @Test
     @DisplayName("should scan all keywords")
     void t5() {
-        for (Map.Entry<String, TokenType> entry : IdentifierScanner.keywords.entrySet()) {
+        for (Map.Entry<String, TokenType> entry : keywords.entrySet()) {
             var returnToken = tokenOf(entry.getKey());
             assertEquals(entry.getValue(), returnToken.type);
         }
     }
+
+    @Test
+    @DisplayName("should not copy the identifier from the input")
+    void t6() {
+        var token = tokenOf("identifier other");
+        assertTrue(token.getText() instanceof SourceSlice);
+        assertEquals("identifier", token.getText().toString());
+    }
+
+    @Test
+    @DisplayName("should not recognize prefixes, extensions or other words of the same length as keywords")
+    void t7() {
+        for (String word : new String[]{"va", "vars", "vall", "vaa", "xar", "vbl"}) {
+            assertEquals(TokenType.Identifier, tokenOf(word).type, word);
+        }
+    }
+
+    @Test
+    @DisplayName("should give the same symbol to identifiers with the same name")
+    void t8() {
+        var tokens = new MainScanner("count total count val total_2 total").tokens();
+
+        assertEquals(0, tokens.get(0).symbol);
+        assertEquals(1, tokens.get(1).symbol);
+        assertEquals(0, tokens.get(2).symbol);
+        assertEquals(-1, tokens.get(3).symbol);
+        assertEquals(2, tokens.get(4).symbol);
+        assertEquals(1, tokens.get(5).symbol);
+    }
 }
@@ -22,7 +22,11 @@ import scanning.MainScanner;
 import scanning.Token;
 import scanning.TokenType;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class NumberScannerTest {
 
@@ -31,7 +35,7 @@ public class NumberScannerTest {
     }
 
     private static String valueOf(String s) {
-        return getTokenOf(s).value;
+        return getTokenOf(s).getValue();
     }
 
     @Test
@@ -51,21 +55,21 @@ public class NumberScannerTest {
         Token result = new NumberScanner(new MainScanner("123")).scan();
         Assertions.assertNotNull(result);
         assertEquals(TokenType.Integer, result.type);
-        assertEquals("123", result.value);
+        assertEquals("123", result.getValue());
         assertEquals(0, result.lineNumber);
         assertEquals(0, result.position);
 
         result = new NumberScanner(new MainScanner("0123")).scan();
         Assertions.assertNotNull(result);
         assertEquals(TokenType.Integer, result.type);
-        assertEquals("0123", result.value);
+        assertEquals("0123", result.getValue());
         assertEquals(0, result.lineNumber);
         assertEquals(0, result.position);
 
         result = new NumberScanner(new MainScanner("0123 45")).scan();
         Assertions.assertNotNull(result);
         assertEquals(TokenType.Integer, result.type);
-        assertEquals("0123", result.value);
+        assertEquals("0123", result.getValue());
         assertEquals(0, result.lineNumber);
         assertEquals(0, result.position);
     }
@@ -76,11 +80,11 @@ public class NumberScannerTest {
         Token result = new NumberScanner(new MainScanner("0x20")).scan();
         Assertions.assertNotNull(result);
         assertEquals(TokenType.Integer, result.type);
-        assertEquals("0x20", result.value);
+        assertEquals("0x20", result.getValue());
         assertEquals(0, result.lineNumber);
         assertEquals(0, result.position);
 
-        assertEquals("0xff", getTokenOf("0xff").value);
+        assertEquals("0xff", getTokenOf("0xff").getValue());
     }
 
     @Test
@@ -89,21 +93,21 @@ public class NumberScannerTest {
         Token result = new NumberScanner(new MainScanner("0 x20")).scan();
         Assertions.assertNotNull(result);
         assertEquals(TokenType.Integer, result.type);
-        assertEquals("0", result.value);
+        assertEquals("0", result.getValue());
         assertEquals(0, result.lineNumber);
         assertEquals(0, result.position);
 
         result = new NumberScanner(new MainScanner("0x 20")).scan();
         Assertions.assertNotNull(result);
         assertEquals(TokenType.Integer, result.type);
-        assertEquals("0", result.value);
+        assertEquals("0", result.getValue());
         assertEquals(0, result.lineNumber);
         assertEquals(0, result.position);
 
         result = new NumberScanner(new MainScanner("0 x 20")).scan();
         Assertions.assertNotNull(result);
         assertEquals(TokenType.Integer, result.type);
-        assertEquals("0", result.value);
+        assertEquals("0", result.getValue());
         assertEquals(0, result.lineNumber);
         assertEquals(0, result.position);
     }
@@ -112,7 +116,7 @@ public class NumberScannerTest {
     @DisplayName("should not scan a hex number if it doesn't start with 0")
     public void test() {
         Token result = getTokenOf("1xff");
-        assertEquals("1", result.value);
+        assertEquals("1", result.getValue());
     }
 
     @Test
@@ -121,7 +125,7 @@ public class NumberScannerTest {
         var scanner = new NumberScanner(new MainScanner("0x 1"));
         Token result = scanner.scan();
         Assertions.assertNotNull(result);
-        assertEquals("0", result.value);
+        assertEquals("0", result.getValue());
         assertEquals(1, scanner.position);
     }
 
@@ -130,7 +134,7 @@ public class NumberScannerTest {
     void t3() {
         var sc = new NumberScanner(new MainScanner("0 a"));
         var result = sc.scan();
-        assertEquals("0", result.value);
+        assertEquals("0", result.getValue());
         assertEquals(1, sc.position);
     }
 
@@ -138,7 +142,7 @@ public class NumberScannerTest {
     @DisplayName("should scan a double using a dot")
     public void t2() {
         Token result = getTokenOf("0.1");
-        assertEquals("0.1", result.value);
+        assertEquals("0.1", result.getValue());
     }
 
     @Test
@@ -150,15 +154,15 @@ public class NumberScannerTest {
     @Test
     @DisplayName("should scan a fp with many digits")
     void t4() {
-        assertEquals("10234.4897234", getTokenOf("10234.4897234").value);
+        assertEquals("10234.4897234", getTokenOf("10234.4897234").getValue());
     }
 
     @Test
     @DisplayName("should scan a fp without decimal part, with exponent")
     void t5() {
-        assertEquals("1e+0", getTokenOf("1e+0").value);
-        assertEquals("1e-0", getTokenOf("1e-0").value);
-        assertEquals("1e+10", getTokenOf("1e+10").value);
+        assertEquals("1e+0", getTokenOf("1e+0").getValue());
+        assertEquals("1e-0", getTokenOf("1e-0").getValue());
+        assertEquals("1e+10", getTokenOf("1e+10").getValue());
         assertEquals("0e+0", valueOf("0e+0"));
         assertEquals("123498790e+12349870", valueOf("123498790e+12349870"));
         assertEquals("1e-123498702397", valueOf("1e-123498702397"));
@@ -186,4 +190,73 @@ public class NumberScannerTest {
         assertEquals("100", valueOf("100e-"));
         assertEquals("100", valueOf("100ex"));
     }
+
+    @Test
+    @DisplayName("should give back the chars after the last complete number")
+    void t9() {
+        var sc = new NumberScanner(new MainScanner("12.e+"));
+        assertEquals(TokenType.Integer, sc.scanToken());
+        assertEquals(2, sc.getPosition());
+
+        sc = new NumberScanner(new MainScanner("1.5e+x"));
+        assertEquals(TokenType.Floating, sc.scanToken());
+        assertEquals(3, sc.getPosition());
+
+        assertEquals("0xAE", valueOf("0xAEg"));
+        assertEquals("0", valueOf("0xg"));
+    }
+
+    @Test
+    @DisplayName("should compute the value of integers")
+    void t10() {
+        assertEquals(123, getTokenOf("123").getLongValue());
+        assertEquals(0, getTokenOf("0").getLongValue());
+        assertEquals(0xAE, getTokenOf("0xAEg").getLongValue());
+        assertEquals(Long.MAX_VALUE, getTokenOf("9223372036854775807").getLongValue());
+        assertEquals(Long.MAX_VALUE, getTokenOf("0x7fffffffffffffff").getLongValue());
+        assertEquals(12, getTokenOf("12.e+").getLongValue());
+    }
+
+    @Test
+    @DisplayName("should flag integers that don't fit in a long")
+    void t11() {
+        var token = getTokenOf("9223372036854775808");
+        assertTrue(token.isOverflow());
+        assertEquals(new BigInteger("9223372036854775808"), token.getExactValue());
+        assertThrows(IllegalStateException.class, token::getLongValue);
+
+        token = getTokenOf("0x10000000000000000");
+        assertTrue(token.isOverflow());
+        assertEquals(BigInteger.ONE.shiftLeft(64), token.getExactValue());
+
+        assertFalse(getTokenOf("123").isOverflow());
+    }
+
+    @Test
+    @DisplayName("should compute the same value of floating point numbers as Double.parseDouble")
+    void t12() {
+        var inputs = new String[]{
+                "1.5", "0.1", "3.14159", "1.5e+3", "2.5e-3", "123456789.987654321", "0.30000000000000004",
+                "9007199254740993.0", "1.0e+22", "1.0e+23", "1.0e-22", "4.9e-324", "1.7976931348623157e+308"
+        };
+        for (String input : inputs) {
+            assertEquals(Double.parseDouble(input), getTokenOf(input).getDoubleValue(), input);
+        }
+
+        var random = new Random(12);
+        for (int i = 0; i < 10_000; i++) {
+            var input = random.nextInt(100_000) + "." + random.nextInt(1_000_000) + "e"
+                    + (random.nextBoolean() ? "+" : "-") + random.nextInt(30);
+            assertEquals(Double.parseDouble(input), getTokenOf(input).getDoubleValue(), input);
+        }
+    }
+
+    @Test
+    @DisplayName("should flag floating point numbers that don't fit in a double")
+    void t13() {
+        var token = getTokenOf("1.0e+400");
+        assertTrue(token.isOverflow());
+        assertEquals(new BigDecimal("1.0e+400"), token.getExactValue());
+        assertFalse(getTokenOf("1.0e-400").isOverflow());
+    }
 }
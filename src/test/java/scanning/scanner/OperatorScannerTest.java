@@ -18,15 +18,16 @@ package scanning.scanner;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import scanning.MainScanner;
+import scanning.OperatorKind;
 
 import java.util.ArrayList;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class OperatorScannerTest {
 
     private String valueOf(String s) {
-        return new OperatorScanner(new MainScanner(s)).scan().value;
+        return new OperatorScanner(new MainScanner(s)).scan().getValue();
     }
 
     @Test
@@ -87,4 +88,33 @@ public class OperatorScannerTest {
         assertEquals("...", valueOf("..."));
         assertEquals(".<.", valueOf(".<."));
     }
+
+    private OperatorKind kindOf(String s) {
+        return new OperatorScanner(new MainScanner(s)).scan().operator;
+    }
+
+    @Test
+    @DisplayName("should find the kind of known operators")
+    void t4() {
+        assertEquals(OperatorKind.Plus, kindOf("+"));
+        assertEquals(OperatorKind.EqualEqual, kindOf("== 1"));
+        assertEquals(OperatorKind.Arrow, kindOf("->"));
+        assertEquals(OperatorKind.Map, kindOf("<$>"));
+        assertEquals(OperatorKind.Ellipsis, kindOf("..."));
+        for (OperatorKind kind : OperatorKind.values()) {
+            if (kind == OperatorKind.Custom) continue;
+            assertEquals(kind, kindOf(kind.getSpelling()));
+            assertSame(kind.getSpelling(), valueOf(kind.getSpelling()));
+        }
+    }
+
+    @Test
+    @DisplayName("should scan unknown operators as Custom, keeping their text")
+    void t5() {
+        assertEquals(OperatorKind.Custom, kindOf(".<."));
+        assertEquals(".<.", valueOf(".<."));
+        assertEquals(OperatorKind.Custom, kindOf("===="));
+        assertEquals("<<<<>", valueOf("<<<<>"));
+        assertEquals(OperatorKind.Custom, OperatorKind.of("a"));
+    }
 }
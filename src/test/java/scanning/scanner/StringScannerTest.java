@@ -18,14 +18,16 @@ package scanning.scanner;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import scanning.MainScanner;
+import scanning.SourceSlice;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 public class StringScannerTest {
 
     private String valueOf(String s) {
-        return new StringScanner(new MainScanner(s)).scan().value;
+        return new StringScanner(new MainScanner(s)).scan().getValue();
     }
 
     @Test
@@ -47,7 +49,7 @@ public class StringScannerTest {
         var stringScanner = new StringScanner(mainScanner);
         var result = stringScanner.scan();
 
-        assertEquals("Hello,", result.value);
+        assertEquals("Hello,", result.getValue());
         var error = mainScanner.getErrorList().get(0);
         assertEquals("Unexpected new line inside a string.", error.reason);
         // next position should be 8, the index of 'w'
@@ -67,4 +69,40 @@ public class StringScannerTest {
         assertEquals("Sample\btext", valueOf("\"Sample\\btext\""));
         assertEquals("Sample\ttext", valueOf("\"Sample\\ttext\""));
     }
+
+    @Test
+    @DisplayName("should not copy strings without escape characters")
+    void t5() {
+        var token = new StringScanner(new MainScanner("\"Hello\"")).scan();
+        assertTrue(token.getText() instanceof SourceSlice);
+        assertEquals("Hello", token.getText().toString());
+
+        token = new StringScanner(new MainScanner("\"Hello\\n\"")).scan();
+        assertTrue(token.getText() instanceof String);
+        assertEquals("Hello\n", token.getValue());
+    }
+
+    @Test
+    @DisplayName("should return the string up until the end of the input, and set an error")
+    void t6() {
+        var mainScanner = new MainScanner("\"Hello");
+        var stringScanner = new StringScanner(mainScanner);
+        assertEquals("Hello", stringScanner.scan().getValue());
+        assertEquals(6, stringScanner.getPosition());
+        assertEquals(StringScanner.UNEXPECTED_END_OF_INPUT_MSG, mainScanner.getErrorList().get(0).reason);
+
+        assertEquals("a\\", valueOf("\"a\\\\"));
+        assertEquals("a", valueOf("\"a\\"));
+
+        var buffer = new MainScanner("id \"Hello").tokenBuffer();
+        assertEquals("Hello", buffer.value(1));
+    }
+
+    @Test
+    @DisplayName("should decode long strings with escape characters between runs of plain chars")
+    void t7() {
+        var plain = "x".repeat(1000);
+        assertEquals(plain + "\n" + plain + "\"" + plain, valueOf("\"" + plain + "\\n" + plain + "\\\"" + plain + "\""));
+        assertEquals(plain, valueOf("\"" + plain + "\" trailing"));
+    }
 }
@@ -17,6 +17,7 @@ package syntactic
 
 import error.ErrorList
 import scanning.MainScanner
+import scanning.PipelinedScanner
 import scanning.TokenType
 import syntactic.Expr.Floating
 import kotlin.test.Test
@@ -103,13 +104,78 @@ object ParserTest {
         assertEquals("Missing closing paren", errorList.errors[0].reason)
     }
 
-    /*
     @Test
     fun `should parse a function call with an identifier`() {
-        val result = getExpression("print 10")
+        val result = getExpression("print 10 x")
         if (result !is Expr.FnCall) {
             fail(typeError("Function Call"))
         }
+        assertEquals("print", (result.fnExpr as Expr.Identifier).token.value)
+        assertEquals(2, result.arguments.size)
     }
+
+    /**
+     * Writes an expression with explicit parentheses, to check how it was grouped
      */
+    private fun show(expr: Expr?): String = when (expr) {
+        is Expr.Binary -> "(${show(expr.left)} ${expr.operator.value} ${show(expr.right)})"
+        is Expr.Unary -> "(${expr.operator.value}${show(expr.operand)})"
+        is Expr.FnCall -> "(${show(expr.fnExpr)}${expr.arguments.joinToString("") { " " + show(it) }})"
+        is Expr.Integer -> expr.token.value
+        is Expr.Identifier -> expr.token.value
+        is Expr.Floating -> expr.token.value
+        is Expr.String -> "\"${expr.token.value}\""
+        is Expr.Unit -> "()"
+        else -> "?"
+    }
+
+    @Test
+    fun `should parse binary operators by precedence and associativity`() {
+        assertEquals("((1 + (2 * 3)) - 4)", show(getExpression("1 + 2 * 3 - 4")))
+        assertEquals("(2 ^ (3 ^ 4))", show(getExpression("2 ^ 3 ^ 4")))
+        assertEquals("((a == b) && ((c < d) || e))", show(getExpression("a == b && (c < d || e)")))
+        assertEquals("((x |> f) |> g)", show(getExpression("x |> f |> g")))
+    }
+
+    @Test
+    fun `should parse prefix operators and function application`() {
+        assertEquals("((-a) * b)", show(getExpression("-a * b")))
+        assertEquals("((f a) + (g (b . c) 2))", show(getExpression("f a + g b.c 2")))
+        assertEquals("(f (1 + 2) ())", show(getExpression("f (1 + 2) ()")))
+        assertEquals("((a <=> b) + c)", show(getExpression("a <=> b + c")))
+    }
+
+    @Test
+    fun `should parse long operator chains`() {
+        val input = (0 until 100_000).joinToString(" + ")
+        var expr = getExpression(input)
+        var count = 0
+        while (expr is Expr.Binary) {
+            expr = expr.left
+            count++
+        }
+        assertEquals(99_999, count)
+    }
+
+    @Test
+    fun `should report a missing operand`() {
+        val errorList = ErrorList()
+        assertNull(getExpression("1 +", errorList))
+        assertEquals("Expected an expression after +", errorList.errors[0].reason)
+        assertNull(getExpression("* 2", errorList))
+        assertEquals("Unexpected operator *", errorList.errors[1].reason)
+    }
+
+    @Test
+    fun `should parse the same with the scanner in another thread`() {
+        for (input in listOf("f a + g b.c 2", "1 + ; 2 *", "(1 + 2")) {
+            val expectedErrors = ErrorList()
+            val expected = show(Parser(MainScanner(input, expectedErrors), expectedErrors).expression())
+            val errorList = ErrorList()
+            PipelinedScanner(input, errorList).use {
+                assertEquals(expected, show(Parser(it, errorList).expression()))
+            }
+            assertEquals(expectedErrors.errors.map { it.reason }, errorList.errors.map { it.reason })
+        }
+    }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package syntactic
+
+import scanning.TokenType
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+object TokenSetTest {
+
+    @Test
+    fun `should contain only the types it was created with`() {
+        val set = TokenSet.of(TokenType.Integer, TokenType.EOF)
+        assertTrue(set.contains(TokenType.Integer))
+        assertTrue(set.contains(TokenType.EOF))
+        assertFalse(set.contains(TokenType.Floating))
+        TokenType.values().forEach { assertFalse(TokenSet.EMPTY.contains(it)) }
+    }
+
+    @Test
+    fun `should join sets`() {
+        val set = TokenSet.of(TokenType.VAL).union(TokenSet.of(TokenType.VAR))
+        assertEquals(TokenSet.of(TokenType.VAR, TokenType.VAL), set)
+        assertEquals("[VAR, VAL]", set.toString())
+    }
+}
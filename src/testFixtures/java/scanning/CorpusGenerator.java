@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package scanning;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Generates Misti code of any size, to benchmark and stress test the front end.
+ *
+ * The output depends only on the seed and the options, so a corpus can be generated again instead of stored.
+ * It's made of declarations, calls and blocks, and only contains tokens of TokenType:
+ * keywords, identifiers, numbers, strings, operators, grouping signs and indentation,
+ * plus blank lines and comments, both on their own lines and after code.
+ * Errors are added to some lines if errorDensity is set: unknown chars, unterminated strings,
+ * and wrong indentation. Each of them makes the scanner report exactly one error.
+ *
+ * The code is generated one line at a time, so reader() and write() use the same memory for any size.
+ */
+public class CorpusGenerator {
+
+    private static final String[] operators = {
+            "+", "-", "*", "/", "%", "==", "!=", "<", ">", "<=", ">=", "&&", "||", "|>", "<$>", "??", "->", ".."
+    };
+    private static final String[] unknownChars = {";", ",", "`", "ERROR", "\u00e9"};
+
+    private final long seed;
+    private int maxIndentation = 4;
+    private int vocabularySize = 1000;
+    private double errorDensity = 0;
+    // Relative weights of each kind of literal in expressions
+    private int integerWeight = 4;
+    private int floatingWeight = 2;
+    private int stringWeight = 2;
+    private int identifierWeight = 6;
+
+    public CorpusGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param levels Maximum amount of indentation levels of a line. 0 generates no blocks
+     */
+    public CorpusGenerator maxIndentation(int levels) {
+        if (levels < 0) throw new IllegalArgumentException("The indentation can't be negative");
+        this.maxIndentation = levels;
+        return this;
+    }
+
+    /**
+     * @param names Amount of different identifiers used
+     */
+    public CorpusGenerator vocabularySize(int names) {
+        if (names < 1) throw new IllegalArgumentException("The vocabulary must have at least 1 name");
+        this.vocabularySize = names;
+        return this;
+    }
+
+    /**
+     * @param density Probability that a line of code has an error, from 0 to 1.
+     *                Blank lines and lines with only a comment never have errors
+     */
+    public CorpusGenerator errorDensity(double density) {
+        if (density < 0 || density > 1) throw new IllegalArgumentException("The error density must be in [0, 1]");
+        this.errorDensity = density;
+        return this;
+    }
+
+    /**
+     * Sets how often each kind of operand appears in expressions. Each weight is relative to their sum.
+     */
+    public CorpusGenerator literalMix(int integers, int floatings, int strings, int identifiers) {
+        if (integers < 0 || floatings < 0 || strings < 0 || identifiers < 0
+                || integers + floatings + strings + identifiers == 0) {
+            throw new IllegalArgumentException("The weights can't be negative, and at least one must be positive");
+        }
+        this.integerWeight = integers;
+        this.floatingWeight = floatings;
+        this.stringWeight = strings;
+        this.identifierWeight = identifiers;
+        return this;
+    }
+
+    /**
+     * @param size Amount of chars to generate. If the last line doesn't fit, it's replaced by spaces
+     * @return The generated code
+     */
+    public String generate(int size) {
+        StringBuilder builder = new StringBuilder(size);
+        try {
+            write(builder, size);
+        } catch (IOException e) {
+            // StringBuilder doesn't throw
+            throw new IllegalStateException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @param size Amount of chars to generate
+     * @return A reader that generates the code as it's read
+     */
+    public Reader reader(long size) {
+        return new CorpusReader(new Lines(), size);
+    }
+
+    /**
+     * Writes the code to out, one line at a time.
+     *
+     * @param size Amount of chars to generate
+     */
+    public void write(Appendable out, long size) throws IOException {
+        Lines lines = new Lines();
+        long written = 0;
+        while (written < size) {
+            StringBuilder line = lines.next(size - written);
+            out.append(line);
+            written += line.length();
+        }
+    }
+
+    /**
+     * Writes the code to a file, encoded as UTF-8.
+     *
+     * @param size Amount of chars to generate
+     */
+    public void writeTo(Path path, long size) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            write(writer, size);
+        }
+    }
+
+    /**
+     * @param index Index in the vocabulary
+     * @return An identifier that is never a keyword
+     */
+    static String name(int index) {
+        StringBuilder name = new StringBuilder("n");
+        do {
+            name.append((char) ('a' + index % 26));
+            index /= 26;
+        } while (index > 0);
+        return name.toString();
+    }
+
+    /**
+     * Generates the lines of the corpus, keeping the indentation between them
+     */
+    private class Lines {
+        private final SplittableRandom random = new SplittableRandom(seed);
+        private final StringBuilder line = new StringBuilder();
+        // Indentation level of the last line
+        private int depth = 0;
+
+        /**
+         * @param remaining Amount of chars left to generate
+         * @return The next line, ending with a new line. It's reused by the next call
+         */
+        StringBuilder next(long remaining) {
+            generateLine();
+            if (line.length() > remaining) {
+                // The code ends with a blank line instead of a line cut in the middle of a token
+                line.setLength(0);
+                for (long i = 1; i < remaining; i++) line.append(' ');
+                line.append('\n');
+            }
+            return line;
+        }
+
+        private void generateLine() {
+            line.setLength(0);
+            boolean hasError = errorDensity > 0 && random.nextDouble() < errorDensity;
+            int errorKind = hasError ? random.nextInt(3) : -1;
+
+            // A block can go one level deeper, or return to any outer level
+            int newDepth = random.nextInt(Math.min(depth + 1, maxIndentation) + 1);
+            if (random.nextInt(8) == 0) {
+                // Blank lines don't change the indentation
+                line.append('\n');
+                return;
+            }
+            if (random.nextInt(16) == 0) {
+                // Neither do lines with only a comment, whatever their indentation
+                for (int i = 0; i < newDepth; i++) line.append("    ");
+                line.append("// ").append(name(random.nextInt(vocabularySize))).append(" comment\n");
+                return;
+            }
+
+            if (errorKind == 0) {
+                // A deeper indentation is a valid INDENT, so the wrong one must be between two open levels
+                newDepth = Math.min(newDepth, depth);
+                if (newDepth == 0) errorKind = 1;
+            }
+            depth = newDepth;
+            for (int i = 0; i < depth; i++) line.append("    ");
+            if (errorKind == 0) {
+                // Indentation that doesn't match any outer level. The scanner closes the levels above it
+                line.setLength(line.length() - 1);
+                depth--;
+            }
+
+            switch (random.nextInt(3)) {
+                case 0: {
+                    line.append(random.nextBoolean() ? "val " : "var ").append(name(random.nextInt(vocabularySize)))
+                            .append(" = ");
+                    expression(2);
+                    break;
+                }
+                case 1: {
+                    line.append(name(random.nextInt(vocabularySize)));
+                    int arguments = random.nextInt(4);
+                    for (int i = 0; i < arguments; i++) {
+                        line.append(' ');
+                        operand();
+                    }
+                    break;
+                }
+                default: {
+                    expression(3);
+                }
+            }
+
+            if (errorKind == 1) {
+                line.append(' ').append(unknownChars[random.nextInt(unknownChars.length)]);
+            } else if (errorKind == 2) {
+                line.append(" \"unterminated");
+            }
+            // A comment after an unterminated string would be part of it
+            if (errorKind != 2 && random.nextInt(8) == 0) {
+                line.append(" // ").append(name(random.nextInt(vocabularySize)));
+            }
+            line.append('\n');
+        }
+
+        private void expression(int maxDepth) {
+            if (maxDepth > 0 && random.nextInt(3) == 0) {
+                switch (random.nextInt(3)) {
+                    case 0: {
+                        line.append('(');
+                        expression(maxDepth - 1);
+                        line.append(')');
+                        return;
+                    }
+                    case 1: {
+                        char opening = random.nextBoolean() ? '[' : '{';
+                        line.append(opening);
+                        int elements = random.nextInt(4);
+                        for (int i = 0; i < elements; i++) {
+                            if (i > 0) line.append(' ');
+                            operand();
+                        }
+                        line.append(opening == '[' ? ']' : '}');
+                        return;
+                    }
+                    default: {
+                        expression(maxDepth - 1);
+                        line.append(' ').append(operators[random.nextInt(operators.length)]).append(' ');
+                        expression(maxDepth - 1);
+                        return;
+                    }
+                }
+            }
+            operand();
+        }
+
+        private void operand() {
+            int total = integerWeight + floatingWeight + stringWeight + identifierWeight;
+            int choice = random.nextInt(total + 1);
+            if (choice == total) {
+                line.append("()");
+                return;
+            }
+
+            if (choice < integerWeight) {
+                if (random.nextInt(4) == 0) line.append("0x").append(Integer.toHexString(random.nextInt(1 << 16)));
+                else line.append(random.nextInt(100_000));
+            } else if ((choice -= integerWeight) < floatingWeight) {
+                line.append(random.nextInt(1000)).append('.').append(random.nextInt(1000));
+                if (random.nextInt(4) == 0) line.append("e+").append(random.nextInt(30));
+            } else if ((choice -= floatingWeight) < stringWeight) {
+                line.append('"').append(name(random.nextInt(vocabularySize)));
+                if (random.nextInt(4) == 0) line.append("\\n\\\"");
+                line.append(" text\"");
+            } else {
+                line.append(name(random.nextInt(vocabularySize)));
+            }
+        }
+    }
+
+    /**
+     * A reader over lines generated on demand
+     */
+    private static class CorpusReader extends Reader {
+        private final Lines lines;
+        private long remaining;
+        private StringBuilder line;
+        private int lineOffset = 0;
+
+        CorpusReader(Lines lines, long size) {
+            this.lines = lines;
+            this.remaining = size;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (remaining == 0) return -1;
+
+            int read = 0;
+            while (read < length && remaining > 0) {
+                if (line == null || lineOffset == line.length()) {
+                    line = lines.next(remaining);
+                    lineOffset = 0;
+                }
+                int count = Math.min(line.length() - lineOffset, length - read);
+                line.getChars(lineOffset, lineOffset + count, buffer, offset + read);
+                lineOffset += count;
+                read += count;
+                remaining -= count;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2022
+ * Fernando Enrique Araoz Morales.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; version 2 of the License.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package scanning;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Classifies the bytes of a Utf8Input in vectors of the preferred size of the CPU, usually 16 or 32 bytes.
+ * Bytes of multibyte chars are negative as signed bytes, so they never match the ASCII ranges.
+ * Other inputs, and the bytes after the last complete vector, are handled by the scalar backend.
+ *
+ * Only loaded by ScanBackend when the module jdk.incubator.vector is available.
+ */
+final class VectorScanBackend extends ScanBackend {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final ScanBackend scalar = ScanBackend.scalar();
+
+    @Override
+    public String getName() {
+        return "vector (" + SPECIES.length() + " bytes)";
+    }
+
+    @Override
+    public int skipSpaces(CharSequence input, int from, int to) {
+        byte[] bytes = arrayOf(input);
+        if (bytes == null) return scalar.skipSpaces(input, from, to);
+
+        int offset = ((Utf8Input) input).arrayOffset();
+        int p = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; p < bound; p += SPECIES.length()) {
+            ByteVector v = ByteVector.fromArray(SPECIES, bytes, offset + p);
+            VectorMask<Byte> other = v.compare(VectorOperators.NE, (byte) ' ');
+            if (other.anyTrue()) return p + other.firstTrue();
+        }
+        return scalar.skipSpaces(input, p, to);
+    }
+
+    @Override
+    public int skipIdentifierChars(CharSequence input, int from, int to) {
+        byte[] bytes = arrayOf(input);
+        if (bytes == null) return scalar.skipIdentifierChars(input, from, to);
+
+        int offset = ((Utf8Input) input).arrayOffset();
+        int p = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; p < bound; p += SPECIES.length()) {
+            ByteVector v = ByteVector.fromArray(SPECIES, bytes, offset + p);
+            // Setting the bit 0x20 turns uppercase letters into lowercase, and no other char into a letter
+            ByteVector lowered = v.or((byte) 0x20);
+            VectorMask<Byte> letter = lowered.compare(VectorOperators.GE, (byte) 'a')
+                    .and(lowered.compare(VectorOperators.LE, (byte) 'z'));
+            VectorMask<Byte> digit = v.compare(VectorOperators.GE, (byte) '0')
+                    .and(v.compare(VectorOperators.LE, (byte) '9'));
+            VectorMask<Byte> other = letter.or(digit).or(v.compare(VectorOperators.EQ, (byte) '_')).not();
+            if (other.anyTrue()) return p + other.firstTrue();
+        }
+        return scalar.skipIdentifierChars(input, p, to);
+    }
+
+    @Override
+    public int findStringSpecialChar(CharSequence input, int from, int to) {
+        byte[] bytes = arrayOf(input);
+        if (bytes == null) return scalar.findStringSpecialChar(input, from, to);
+
+        int offset = ((Utf8Input) input).arrayOffset();
+        int p = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; p < bound; p += SPECIES.length()) {
+            ByteVector v = ByteVector.fromArray(SPECIES, bytes, offset + p);
+            VectorMask<Byte> special = v.compare(VectorOperators.EQ, (byte) '"')
+                    .or(v.compare(VectorOperators.EQ, (byte) '\n'))
+                    .or(v.compare(VectorOperators.EQ, (byte) '\\'));
+            if (special.anyTrue()) return p + special.firstTrue();
+        }
+        return scalar.findStringSpecialChar(input, p, to);
+    }
+
+    /**
+     * @return The array of a Utf8Input over a byte array, or null for other inputs
+     */
+    private static byte[] arrayOf(CharSequence input) {
+        return input instanceof Utf8Input ? ((Utf8Input) input).array() : null;
+    }
+}